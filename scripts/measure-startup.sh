@@ -0,0 +1,90 @@
+#!/usr/bin/env bash
+#
+# Compares the startup of the packaged application as a plain jar, with Spring AOT, and with Spring AOT
+# plus an AppCDS archive, and prints the median startup time and time to first request of each.
+# Run by the fast-start Maven profile (mvn -Pfast-start verify), which builds the jar with AOT processing.
+#
+# Usage: scripts/measure-startup.sh <application jar> [runs per mode]
+#
+# The application is started with the "training" profile, so no database or TMDB is needed. The
+# first request is GET /actuator/health, which answers 503 without a database; any response counts.
+# Results also go to target/startup-report.txt.
+
+set -euo pipefail
+
+JAR=${1:?usage: measure-startup.sh <application jar> [runs per mode]}
+RUNS=${2:-3}
+TARGET_DIR=$(cd "$(dirname "$JAR")" && pwd)
+WORK_DIR="$TARGET_DIR/fast-start"
+REPORT="$TARGET_DIR/startup-report.txt"
+PORT=${STARTUP_PORT:-18080}
+TIMEOUT_SECONDS=${STARTUP_TIMEOUT_SECONDS:-60}
+APP_ARGS=(-Dspring.profiles.active=training)
+
+# Unpack the jar the way the Dockerfile does: CDS only works with a jar and its libraries on disk.
+rm -rf "$WORK_DIR"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK_DIR" > /dev/null
+APP_JAR="$WORK_DIR/$(basename "$JAR")"
+
+echo "Recording the AppCDS archive with a training run"
+java -XX:ArchiveClassesAtExit="$WORK_DIR/application.jsa" -Xlog:cds=off -Xlog:cds+dynamic=off \
+    -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh "${APP_ARGS[@]}" \
+    -jar "$APP_JAR" > "$WORK_DIR/training.log" 2>&1
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the application with the given JVM options and prints "<startup ms> <time to first request ms>".
+# The startup time is the one Spring Boot logs for the application context.
+measure() {
+    local log="$WORK_DIR/run.log"
+    local start pid first_request
+    start=$(now_ms)
+    java "$@" "${APP_ARGS[@]}" -jar "$APP_JAR" --server.port="$PORT" > "$log" 2>&1 &
+    pid=$!
+    until [[ $(curl -s -o /dev/null -w '%{http_code}' "http://127.0.0.1:$PORT/actuator/health") != 000 ]]; do
+        if ! kill -0 "$pid" 2> /dev/null || (( $(now_ms) - start > TIMEOUT_SECONDS * 1000 )); then
+            kill "$pid" 2> /dev/null || true
+            echo "The application did not answer its first request, see $log" >&2
+            tail -n 20 "$log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    first_request=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    local started
+    started=$(sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' "$log" | head -n 1)
+    echo "$(awk -v seconds="${started:-0}" 'BEGIN { printf "%d", seconds * 1000 }') $first_request"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+MODES=("plain jar" "AOT" "AOT + CDS")
+OPTIONS=("" "-Dspring.aot.enabled=true" "-Dspring.aot.enabled=true -XX:SharedArchiveFile=$WORK_DIR/application.jsa -Xlog:cds=off")
+declare -a STARTUP FIRST_REQUEST
+for i in "${!MODES[@]}"; do
+    startups=()
+    first_requests=()
+    for (( run = 1; run <= RUNS; run++ )); do
+        # shellcheck disable=SC2086 # the options are split on purpose
+        read -r startup first_request <<< "$(measure ${OPTIONS[$i]})"
+        startups+=("$startup")
+        first_requests+=("$first_request")
+    done
+    STARTUP[$i]=$(printf '%s\n' "${startups[@]}" | median)
+    FIRST_REQUEST[$i]=$(printf '%s\n' "${first_requests[@]}" | median)
+done
+
+{
+    echo "Startup of $(basename "$JAR"), median of $RUNS runs, Java $(java -version 2>&1 | head -n 1 | cut -d '"' -f 2)"
+    printf '%-12s %14s %24s %10s\n' "mode" "startup (ms)" "first request (ms)" "vs plain"
+    for i in "${!MODES[@]}"; do
+        printf '%-12s %14d %24d %9d%%\n' "${MODES[$i]}" "${STARTUP[$i]}" "${FIRST_REQUEST[$i]}" \
+            $(( (FIRST_REQUEST[i] - FIRST_REQUEST[0]) * 100 / FIRST_REQUEST[0] ))
+    done
+} | tee "$REPORT"
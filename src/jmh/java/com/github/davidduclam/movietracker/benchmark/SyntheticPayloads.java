@@ -0,0 +1,45 @@
+package com.github.davidduclam.movietracker.benchmark;
+
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Response bodies the benchmarks parse, stored under {@code src/jmh/resources/payloads}, and a
+ * {@link JsonMapper} set up like the one Spring Boot gives the application.
+ * <p>
+ * The bodies are synthetic: they follow the field names, nesting and list sizes of the TMDB
+ * endpoints below, but titles, ids and texts are made up rather than captured from TMDB, so
+ * results only hold as far as real responses have the same shape.
+ */
+public final class SyntheticPayloads {
+
+    /** {@code GET /search/multi}: 20 results mixing movies, TV shows and people. */
+    public static final String SEARCH_MULTI = "search-multi.json";
+
+    /** {@code GET /movie/{id}?append_to_response=videos}: full details with 31 videos, one official trailer. */
+    public static final String MOVIE_DETAILS = "movie-details.json";
+
+    private SyntheticPayloads() {
+    }
+
+    public static byte[] read(String name) {
+        try (InputStream in = SyntheticPayloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing payload " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static JsonMapper jsonMapper() {
+        return JsonMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.davidduclam.movietracker.benchmark;
+
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMultiSearchResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson deserialization of TMDB responses, including the polymorphic
+ * {@code TmdbSearchResultDTO} resolved from {@code media_type}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TmdbDeserializationBenchmark {
+
+    private JsonMapper jsonMapper;
+    private byte[] searchMulti;
+    private byte[] movieDetails;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = SyntheticPayloads.jsonMapper();
+        searchMulti = SyntheticPayloads.read(SyntheticPayloads.SEARCH_MULTI);
+        movieDetails = SyntheticPayloads.read(SyntheticPayloads.MOVIE_DETAILS);
+    }
+
+    @Benchmark
+    public TmdbMultiSearchResponseDTO searchMulti() {
+        return jsonMapper.readValue(searchMulti, TmdbMultiSearchResponseDTO.class);
+    }
+
+    @Benchmark
+    public TmdbMovieDTO movieDetails() {
+        return jsonMapper.readValue(movieDetails, TmdbMovieDTO.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.davidduclam.movietracker.benchmark;
+
+import com.github.davidduclam.movietracker.dto.MovieWatchlistItemDTO;
+import com.github.davidduclam.movietracker.dto.TvShowWatchlistItemDTO;
+import com.github.davidduclam.movietracker.dto.WatchlistItemDTO;
+import com.github.davidduclam.movietracker.model.MediaType;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of large watchlists, both as the JSON array returned by
+ * {@code GET /users/{user_id}/media} and as the NDJSON lines written by the export.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class WatchlistSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectWriter listWriter;
+    private ObjectWriter itemWriter;
+    private List<WatchlistItemDTO> items;
+
+    @Setup
+    public void setUp() {
+        JsonMapper jsonMapper = SyntheticPayloads.jsonMapper();
+        listWriter = jsonMapper.writerFor(new TypeReference<List<WatchlistItemDTO>>() {});
+        itemWriter = jsonMapper.writerFor(WatchlistItemDTO.class);
+
+        String overview = "A burglar who steals corporate secrets through dream-sharing technology is given "
+                + "the inverse task of planting an idea into the mind of a C.E.O., but his tragic past may doom the project.";
+        items = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            LocalDate releaseDate = LocalDate.of(1980, 1, 1).plusDays(i * 11);
+            items.add(i % 3 == 0
+                    ? new TvShowWatchlistItemDTO(i, 1_000 + i, MediaType.TV, "Show " + i, overview, releaseDate,
+                            "/poster" + i + ".jpg", "/backdrop" + i + ".jpg", 7.9)
+                    : new MovieWatchlistItemDTO(i, 100_000 + i, MediaType.MOVIE, "Movie " + i, overview, releaseDate,
+                            "/poster" + i + ".jpg", "/backdrop" + i + ".jpg", 8.4));
+        }
+    }
+
+    @Benchmark
+    public byte[] jsonArray() {
+        return listWriter.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public int ndjsonExport() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size * 512);
+        for (WatchlistItemDTO item : items) {
+            itemWriter.writeValue(out, item);
+            out.write('\n');
+        }
+        return out.size();
+    }
+}
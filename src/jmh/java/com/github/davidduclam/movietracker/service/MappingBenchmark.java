@@ -0,0 +1,49 @@
+package com.github.davidduclam.movietracker.service;
+
+import com.github.davidduclam.movietracker.benchmark.SyntheticPayloads;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieResultDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMultiSearchResponseDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbSearchResultDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbTvShowResultDTO;
+import com.github.davidduclam.movietracker.dto.MovieResponseDTO;
+import com.github.davidduclam.movietracker.dto.SearchResultDTO;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of deserialized TMDB responses to API responses: search results, which parse release
+ * dates with {@code LocalDate.parse}, and movie details, which filter the videos for the trailer.
+ * Lives in the service package to reach the package-private {@link ResponseMapper}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private List<TmdbSearchResultDTO> searchResults;
+    private TmdbMovieDTO movieDetails;
+
+    @Setup
+    public void setUp() {
+        JsonMapper jsonMapper = SyntheticPayloads.jsonMapper();
+        searchResults = jsonMapper.readValue(SyntheticPayloads.read(SyntheticPayloads.SEARCH_MULTI), TmdbMultiSearchResponseDTO.class)
+                .results().stream()
+                .filter(result -> result instanceof TmdbMovieResultDTO || result instanceof TmdbTvShowResultDTO)
+                .toList();
+        movieDetails = jsonMapper.readValue(SyntheticPayloads.read(SyntheticPayloads.MOVIE_DETAILS), TmdbMovieDTO.class);
+    }
+
+    @Benchmark
+    public List<SearchResultDTO> toSearchResults() {
+        return searchResults.stream().map(ResponseMapper::toSearchResult).toList();
+    }
+
+    @Benchmark
+    public MovieResponseDTO toMovieResponse() {
+        return ResponseMapper.toMovieResponse(movieDetails);
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.davidduclam.movietracker.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.davidduclam.movietracker.timing.ServerTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of already-encoded JSON responses for the catalog endpoints. Each entry keeps the JSON bytes,
+ * a precompressed gzip variant and a strong ETag derived from the JSON, together with the value they were
+ * encoded from. As long as a route keeps returning the same (or an equal) value, requests are answered
+ * from the cached bytes without running Jackson again, and conditional requests get a 304.
+ */
+@Component
+public class EncodedResponseCache {
+
+    private final Cache<String, EncodedResponse> cache;
+    private final JsonMapper jsonMapper;
+
+    public EncodedResponseCache(JsonMapper jsonMapper,
+                                @Value("${response.cache.max-entries:5000}") long maxEntries,
+                                MeterRegistry meterRegistry) {
+        this.jsonMapper = jsonMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "encodedResponses");
+    }
+
+    /**
+     * Returns the encoded form of the body for the given route, re-encoding only when the body
+     * differs from the one the cached bytes were produced from.
+     *
+     * @param key identifies the route, such as {@code movies:popular} or {@code movie:550}
+     * @param body the value the route currently returns
+     * @return the encoded response
+     */
+    public EncodedResponse get(String key, Object body) {
+        EncodedResponse cached = cache.getIfPresent(key);
+        if (cached != null && (cached.source() == body || Objects.equals(cached.source(), body))) {
+            return cached;
+        }
+        EncodedResponse encoded = ServerTimings.time(ServerTimings.Category.SERIALIZATION, () -> encode(body));
+        cache.put(key, encoded);
+        return encoded;
+    }
+
+    private EncodedResponse encode(Object body) {
+        byte[] json = jsonMapper.writeValueAsBytes(body);
+        return new EncodedResponse(body, json, gzip(json), etag(json));
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record EncodedResponse(Object source, byte[] json, byte[] gzip, String etag) {
+
+        /**
+         * Builds the HTTP response for a request: a 304 when the client already holds this ETag,
+         * otherwise the gzip or identity bytes depending on the client's Accept-Encoding.
+         *
+         * @param ifNoneMatch the request's If-None-Match header, may be {@code null}
+         * @param acceptEncoding the request's Accept-Encoding header, may be {@code null}
+         * @return the response entity carrying the pre-encoded bytes
+         */
+        public ResponseEntity<byte[]> toResponseEntity(String ifNoneMatch, String acceptEncoding) {
+            return toResponseEntity(ifNoneMatch, acceptEncoding, HttpHeaders.EMPTY);
+        }
+
+        /**
+         * Builds the HTTP response like {@link #toResponseEntity(String, String)}, adding the given headers.
+         *
+         * @param ifNoneMatch the request's If-None-Match header, may be {@code null}
+         * @param acceptEncoding the request's Accept-Encoding header, may be {@code null}
+         * @param headers additional response headers, such as a staleness marker
+         * @return the response entity carrying the pre-encoded bytes
+         */
+        public ResponseEntity<byte[]> toResponseEntity(String ifNoneMatch, String acceptEncoding, HttpHeaders headers) {
+            if (matchesEtag(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .headers(headers)
+                        .eTag(etag)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .headers(headers)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(acceptEncoding)) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+            }
+            return response.body(json);
+        }
+
+        private boolean matchesEtag(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::strip)
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                    .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+        }
+
+        private static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+            return Arrays.stream(acceptEncoding.split(","))
+                    .map(String::strip)
+                    .anyMatch(coding -> coding.equals("gzip")
+                            || coding.startsWith("gzip;") && !coding.replace(" ", "").matches("gzip;q=0(\\.0*)?"));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.davidduclam.movietracker.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Keeps slowly changing upstream data (such as the TMDB popular and top-rated lists) in memory
+ * and refreshes it on a background schedule, so requests are served without waiting on TMDB.
+ * When a refresh fails, the last successfully loaded value keeps being served.
+ */
+@Component
+public class RefreshAheadCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private final List<Entry<?>> entries = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a value to be kept warm by the background refresh.
+     *
+     * @param name a name identifying the value in log messages
+     * @param loader the upstream call producing the value
+     * @param <T> the type of the cached value
+     * @return the entry used to read the cached value
+     */
+    public <T> Entry<T> register(String name, Supplier<T> loader) {
+        Entry<T> entry = new Entry<>(name, loader);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Reloads every registered value. Runs once right after startup and then at the configured interval.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tmdb.lists.refresh-interval:30m}")
+    public void refreshAll() {
+        entries.forEach(Entry::refresh);
+    }
+
+    public static final class Entry<T> {
+        private final String name;
+        private final Supplier<T> loader;
+        private final ReentrantLock loadLock = new ReentrantLock();
+        private volatile T value;
+
+        private Entry(String name, Supplier<T> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+
+        /**
+         * Returns the last loaded value. Only the very first read, before any load has succeeded,
+         * waits for the upstream call; concurrent first reads share that single load.
+         *
+         * @return the cached value
+         */
+        public T get() {
+            T current = value;
+            if (current != null) {
+                return current;
+            }
+            loadLock.lock();
+            try {
+                if (value == null) {
+                    value = loader.get();
+                }
+                return value;
+            } finally {
+                loadLock.unlock();
+            }
+        }
+
+        private void refresh() {
+            try {
+                value = loader.get();
+            } catch (RuntimeException e) {
+                logger.warn("Refreshing {} failed, serving the last loaded value: {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.davidduclam.movietracker.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.davidduclam.movietracker.dto.SearchResultDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of already-mapped multi-search results, keyed on the normalized query and the language.
+ * Queries are trimmed, whitespace-collapsed, case-folded and Unicode (NFKC) normalized, so the
+ * many spellings of the same short prefix typed by different users share one entry.
+ * The loader runs outside the cache's atomic compute so a virtual thread waiting on TMDB is never
+ * pinned; concurrent misses for the same query are coalesced by the TMDB client.
+ */
+@Component
+public class SearchResultCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Cache<Key, List<SearchResultDTO>> cache;
+
+    public SearchResultCache(@Value("${search.cache.max-entries:20000}") long maxEntries,
+                             @Value("${search.cache.ttl:15m}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "searchResults");
+    }
+
+    /**
+     * Returns the cached results for the query, loading them on a miss.
+     *
+     * @param query the raw search query sent by the client
+     * @param language the TMDB language of the results
+     * @param loader maps the normalized query to the search results
+     * @return the search results for the normalized query
+     */
+    public List<SearchResultDTO> get(String query, String language, Function<String, List<SearchResultDTO>> loader) {
+        Key key = new Key(normalize(query), language.strip());
+        List<SearchResultDTO> results = cache.getIfPresent(key);
+        if (results == null) {
+            results = loader.apply(key.query());
+            cache.put(key, results);
+        }
+        return results;
+    }
+
+    /**
+     * Normalizes a search query: Unicode NFKC normalization, trimmed, inner whitespace
+     * collapsed to a single space and lower-cased.
+     *
+     * @param query the raw search query
+     * @return the normalized query
+     */
+    public static String normalize(String query) {
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFKC).strip();
+        return WHITESPACE.matcher(normalized).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Key(String query, String language) {}
+}
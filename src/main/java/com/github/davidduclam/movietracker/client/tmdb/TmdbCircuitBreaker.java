@@ -0,0 +1,215 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbCallRejectedException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker around TMDB calls. The outcomes of the last {@code window-size} calls are kept,
+ * and once at least {@code minimum-calls} have been recorded with a failure rate at or above the
+ * threshold, the circuit opens: calls fail immediately with a 503 instead of tying up threads
+ * behind an upstream that is down. After {@code open-duration} a few trial calls are let through
+ * (half-open); if they all succeed the circuit closes again, otherwise it reopens.
+ * <p>
+ * Only upstream failures count: I/O errors, timeouts, 5xx responses and anything else thrown by the
+ * call, {@link Error}s included. Client errors such as 404 and 429s (handled by {@link TmdbRateLimiter})
+ * are recorded as successes. Local rejections ({@link TmdbCallRejectedException}) never reached TMDB,
+ * so they are not recorded at all, and a half-open trial call rejected that way hands its permit back.
+ * The state is published as the {@code tmdb.circuitbreaker.state} gauge (0 closed, 1 open, 2 half-open).
+ */
+@Component
+public class TmdbCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private enum Outcome { SUCCESS, FAILURE, NOT_RECORDED }
+
+    private static final Logger logger = LoggerFactory.getLogger(TmdbCircuitBreaker.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean enabled;
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final Counter rejected;
+
+    public TmdbCircuitBreaker(@Value("${tmdb.circuit-breaker.enabled:true}") boolean enabled,
+                              @Value("${tmdb.circuit-breaker.window-size:20}") int windowSize,
+                              @Value("${tmdb.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                              @Value("${tmdb.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                              @Value("${tmdb.circuit-breaker.open-duration:30s}") Duration openDuration,
+                              @Value("${tmdb.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+
+        this.rejected = Counter.builder("tmdb.circuitbreaker.rejected")
+                .description("TMDB calls rejected while the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("tmdb.circuitbreaker.state", this, breaker -> breaker.state().ordinal())
+                .description("TMDB circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call if the circuit allows it and records its outcome.
+     *
+     * @param action the TMDB action, used in the error message
+     * @param call the TMDB request
+     * @param <T> the type of the result
+     * @return the result of the call
+     * @throws TmdbClientException with status 503 if the circuit is open, or the call's own failure
+     */
+    public <T> T execute(String action, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        State permittedIn = tryAcquirePermission();
+        if (permittedIn == State.OPEN) {
+            rejected.increment();
+            throw new TmdbCallRejectedException("TMDB is unavailable (circuit open), could not " + action);
+        }
+
+        // Anything not caught below, Errors included, is a failure, so a half-open permit is never lost.
+        Outcome outcome = Outcome.FAILURE;
+        try {
+            T result = call.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (TmdbCallRejectedException e) {
+            outcome = Outcome.NOT_RECORDED;
+            throw e;
+        } catch (TmdbClientException e) {
+            outcome = isFailure(e) ? Outcome.FAILURE : Outcome.SUCCESS;
+            throw e;
+        } finally {
+            record(outcome, permittedIn);
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the state the call was let through in, or {@link State#OPEN} if it is rejected.
+     */
+    private State tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+                transitionTo(State.HALF_OPEN);
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits <= 0) {
+                    return State.OPEN;
+                }
+                halfOpenPermits--;
+            }
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Outcome outcome, State permittedIn) {
+        lock.lock();
+        try {
+            if (outcome == Outcome.NOT_RECORDED) {
+                if (permittedIn == State.HALF_OPEN && state == State.HALF_OPEN) {
+                    halfOpenPermits++;
+                }
+                return;
+            }
+            boolean success = outcome == Outcome.SUCCESS;
+            switch (state) {
+                case HALF_OPEN -> {
+                    if (!success) {
+                        open();
+                    } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                        transitionTo(State.CLOSED);
+                        resetWindow();
+                    }
+                }
+                case CLOSED -> {
+                    if (recorded == outcomes.length && !outcomes[next]) {
+                        failures--;
+                    }
+                    outcomes[next] = success;
+                    next = (next + 1) % outcomes.length;
+                    recorded = Math.min(recorded + 1, outcomes.length);
+                    if (!success) {
+                        failures++;
+                    }
+                    if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                        open();
+                    }
+                }
+                case OPEN -> {
+                    // Calls that started before the circuit opened; their outcome no longer matters.
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        transitionTo(State.OPEN);
+        openedAtNanos = System.nanoTime();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    private void transitionTo(State newState) {
+        if (state != newState) {
+            logger.warn("TMDB circuit breaker {} -> {}", state, newState);
+            state = newState;
+        }
+    }
+
+    /**
+     * A failure is a TMDB request that got no usable response: an I/O error, a timeout or a 5xx.
+     * Empty bodies carry no cause and are not counted.
+     */
+    private static boolean isFailure(TmdbClientException e) {
+        return e.getCause() != null && (e.getStatus() == null || e.getStatus().is5xxServerError());
+    }
+}
@@ -1,31 +1,60 @@
 package com.github.davidduclam.movietracker.client.tmdb;
 
+import com.github.davidduclam.movietracker.client.tmdb.TmdbHttpTransport.Action;
 import com.github.davidduclam.movietracker.client.tmdb.dto.*;
 import com.github.davidduclam.movietracker.error.TmdbClientException;
+import com.github.davidduclam.movietracker.timing.ServerTimings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 @Service
 public class TmdbClient {
 
-    private final RestClient restClient;
+    private final Map<Action, RestClient> restClients = new EnumMap<>(Action.class);
+    private final TmdbDetailsCache detailsCache;
+    private final TmdbRequestCoalescer requestCoalescer;
+    private final TmdbRetryPolicy retryPolicy;
+    private final TmdbCircuitBreaker circuitBreaker;
+    private final TmdbMetrics metrics;
     private static final Logger logger = LoggerFactory.getLogger(TmdbClient.class);
 
-    public TmdbClient(RestClient.Builder builder, @Value("${tmdb.access-token}") String accessToken) {
-        this.restClient = builder
-                .baseUrl("https://api.themoviedb.org/3")
+    public TmdbClient(RestClient.Builder builder, TmdbHttpTransport transport,
+                      TmdbDetailsCache detailsCache, TmdbRequestCoalescer requestCoalescer,
+                      TmdbRetryPolicy retryPolicy, TmdbCircuitBreaker circuitBreaker, TmdbMetrics metrics,
+                      @Value("${tmdb.base-url:https://api.themoviedb.org/3}") String baseUrl,
+                      @Value("${tmdb.access-token}") String accessToken) {
+        this.detailsCache = detailsCache;
+        this.requestCoalescer = requestCoalescer;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.metrics = metrics;
+        RestClient.Builder tmdbBuilder = builder.clone()
+                .baseUrl(baseUrl)
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .defaultHeader(HttpHeaders.ACCEPT, "application/json")
-                .build();
+                .requestInterceptor(metrics);
+        for (Action action : Action.values()) {
+            restClients.put(action, tmdbBuilder.clone().requestFactory(transport.requestFactory(action)).build());
+        }
     }
 
     // =======================================================
@@ -36,15 +65,16 @@ public class TmdbClient {
      * Searches for movies and TV shows on TMDB based on the given query.
      *
      * @param query The search query string used to find matching movies or TV shows.
+     * @param language The TMDB language of the results, such as {@code en-US}.
      * @return A list of {@code TmdbSearchResultDTO} objects containing the search results for the query.
      * @throws TmdbClientException If the response from TMDB is null or empty.
      */
-    public List<TmdbSearchResultDTO> searchMulti(String query) {
-        TmdbMultiSearchResponseDTO response = execute("search multi", () -> restClient.get()
+    public List<TmdbSearchResultDTO> searchMulti(String query, String language) {
+        TmdbMultiSearchResponseDTO response = execute("search multi", List.of(query, language), () -> restClient(Action.SEARCH).get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/search/multi")
                         .queryParam("query", query)
-                        .queryParam("language", "en-US")
+                        .queryParam("language", language)
                         .build())
                 .retrieve()
                 .body(TmdbMultiSearchResponseDTO.class));
@@ -52,7 +82,7 @@ public class TmdbClient {
         if (response == null) {
             throw new TmdbClientException("TMDB returned an empty response for search multi");
         }
-        logger.info("Found {} total multi-search results for query {}", response.totalResults(), query);
+        logger.debug("Found {} total multi-search results for query {}", response.totalResults(), query);
         return response.results().stream()
                 .filter(result -> result instanceof TmdbMovieResultDTO || result instanceof TmdbTvShowResultDTO)
                 .toList();
@@ -63,14 +93,54 @@ public class TmdbClient {
     // =======================================================
 
     /**
-     * Fetch the details of a specific movie
+     * Fetch the details of a specific movie, served from the details cache when possible
      *
      * @param tmdbId the ID of the movie from TMDB
      * @return the movie details from the specified movie
      * @throws TmdbClientException if an error occurs while fetching movie details
      */
     public TmdbMovieDTO fetchMovieDetails(Long tmdbId) {
-        TmdbMovieDTO response = execute("fetch movie details", () -> restClient.get()
+        return detailsCache.getMovieDetails(tmdbId, () -> requestMovieDetails(tmdbId));
+    }
+
+    /**
+     * Returns the most recently fetched details of a movie, even if they are past their cache expiry.
+     * Meant as a fallback while TMDB is unavailable.
+     *
+     * @param tmdbId the ID of the movie from TMDB
+     * @return the last known movie details, if the movie was fetched before and not evicted
+     */
+    public Optional<TmdbMovieDTO> lastKnownMovieDetails(Long tmdbId) {
+        return detailsCache.lastKnownMovieDetails(tmdbId);
+    }
+
+    /**
+     * Fetches the current details of a movie from TMDB, bypassing the details cache, and caches them.
+     *
+     * @param tmdbId the ID of the movie from TMDB
+     * @return the movie details
+     * @throws TmdbClientException if an error occurs while fetching movie details
+     */
+    public TmdbMovieDTO refreshMovieDetails(Long tmdbId) {
+        return detailsCache.refreshMovieDetails(tmdbId, () -> requestMovieDetails(tmdbId));
+    }
+
+    /**
+     * Fetches one page of the ids of movies changed on TMDB between the given dates. TMDB accepts
+     * a range of at most 14 days and returns up to 100 ids per page.
+     *
+     * @param startDate the first day of the range, in UTC
+     * @param endDate the last day of the range, in UTC
+     * @param page the page to fetch, starting at 1
+     * @return the page of changed movie ids
+     * @throws TmdbClientException if an error occurs while fetching the changes
+     */
+    public TmdbChangesResponseDTO movieChanges(LocalDate startDate, LocalDate endDate, int page) {
+        return changes("fetch movie changes", "/movie/changes", startDate, endDate, page);
+    }
+
+    private TmdbMovieDTO requestMovieDetails(Long tmdbId) {
+        TmdbMovieDTO response = execute("fetch movie details", List.of(tmdbId), () -> restClient(Action.DETAILS).get()
                 .uri("/movie/{movie_id}?append_to_response=videos", tmdbId)
                 .retrieve()
                 .body(TmdbMovieDTO.class));
@@ -87,7 +157,7 @@ public class TmdbClient {
      * @throws TmdbClientException if an error occurs while fetching popular movies
      */
     public List<TmdbMovieDTO> popularMovies() {
-        TmdbSearchMovieResponseDTO response = execute("fetch popular movies", () -> restClient.get()
+        TmdbSearchMovieResponseDTO response = execute("fetch popular movies", List.of(), () -> restClient(Action.LISTS).get()
                 .uri("/movie/popular")
                 .retrieve()
                 .body(TmdbSearchMovieResponseDTO.class));
@@ -104,7 +174,7 @@ public class TmdbClient {
      * @throws TmdbClientException if an error occurs while fetching top-rated movies
      */
     public List<TmdbMovieDTO> topRatedMovies() {
-        TmdbSearchMovieResponseDTO response = execute("fetch top-rated movies", () -> restClient.get()
+        TmdbSearchMovieResponseDTO response = execute("fetch top-rated movies", List.of(), () -> restClient(Action.LISTS).get()
                 .uri("/movie/top_rated")
                 .retrieve()
                 .body(TmdbSearchMovieResponseDTO.class));
@@ -121,7 +191,7 @@ public class TmdbClient {
      * @throws TmdbClientException if an error occurs while fetching upcoming movies
      */
     public List<TmdbMovieDTO> upcomingMovies() {
-        TmdbSearchMovieResponseDTO response = execute("fetch upcoming movies", () -> restClient.get()
+        TmdbSearchMovieResponseDTO response = execute("fetch upcoming movies", List.of(), () -> restClient(Action.LISTS).get()
                 .uri("/movie/upcoming")
                 .retrieve()
                 .body(TmdbSearchMovieResponseDTO.class));
@@ -138,12 +208,54 @@ public class TmdbClient {
     /**
      * Fetches the details of a specific TV show from TMDB.
      *
+     * Results, including TMDB 404 responses, are served from the details cache when possible.
+     *
      * @param tmdbId the ID of the TV show from TMDB
      * @return the details of the specified TV show as a {@code TmdbTvShowDTO} object
      * @throws TmdbClientException if an error occurs while fetching TV show details
      */
     public TmdbTvShowDTO fetchTvShowDetails(Long tmdbId) {
-        TmdbTvShowDTO response = execute("fetch tv show details", () -> restClient.get()
+        return detailsCache.getTvShowDetails(tmdbId, () -> requestTvShowDetails(tmdbId));
+    }
+
+    /**
+     * Returns the most recently fetched details of a TV show, even if they are past their cache expiry.
+     * Meant as a fallback while TMDB is unavailable.
+     *
+     * @param tmdbId the ID of the TV show from TMDB
+     * @return the last known TV show details, if the show was fetched before and not evicted
+     */
+    public Optional<TmdbTvShowDTO> lastKnownTvShowDetails(Long tmdbId) {
+        return detailsCache.lastKnownTvShowDetails(tmdbId);
+    }
+
+    /**
+     * Fetches the current details of a TV show from TMDB, bypassing the details cache, and caches them.
+     *
+     * @param tmdbId the ID of the TV show from TMDB
+     * @return the TV show details
+     * @throws TmdbClientException if an error occurs while fetching TV show details
+     */
+    public TmdbTvShowDTO refreshTvShowDetails(Long tmdbId) {
+        return detailsCache.refreshTvShowDetails(tmdbId, () -> requestTvShowDetails(tmdbId));
+    }
+
+    /**
+     * Fetches one page of the ids of TV shows changed on TMDB between the given dates. TMDB accepts
+     * a range of at most 14 days and returns up to 100 ids per page.
+     *
+     * @param startDate the first day of the range, in UTC
+     * @param endDate the last day of the range, in UTC
+     * @param page the page to fetch, starting at 1
+     * @return the page of changed TV show ids
+     * @throws TmdbClientException if an error occurs while fetching the changes
+     */
+    public TmdbChangesResponseDTO tvShowChanges(LocalDate startDate, LocalDate endDate, int page) {
+        return changes("fetch tv show changes", "/tv/changes", startDate, endDate, page);
+    }
+
+    private TmdbTvShowDTO requestTvShowDetails(Long tmdbId) {
+        TmdbTvShowDTO response = execute("fetch tv show details", List.of(tmdbId), () -> restClient(Action.DETAILS).get()
                 .uri("/tv/{series_id}?append_to_response=videos", tmdbId)
                 .retrieve()
                 .body(TmdbTvShowDTO.class));
@@ -165,7 +277,7 @@ public class TmdbClient {
      * @throws TmdbClientException if the TMDB API returns an empty response
      */
     public List<TmdbTvShowDTO> popularTvShows() {
-        TmdbSearchTvShowResponseDTO response = execute("fetch popular tv shows", () -> restClient.get()
+        TmdbSearchTvShowResponseDTO response = execute("fetch popular tv shows", List.of(), () -> restClient(Action.LISTS).get()
                 .uri("/tv/popular")
                 .retrieve()
                 .body(TmdbSearchTvShowResponseDTO.class));
@@ -186,7 +298,7 @@ public class TmdbClient {
      * @throws TmdbClientException if the API response is null or cannot be retrieved correctly
      */
     public List<TmdbTvShowDTO> topRatedTvShows() {
-        TmdbSearchTvShowResponseDTO response = execute("fetch top rated tv shows", () -> restClient.get()
+        TmdbSearchTvShowResponseDTO response = execute("fetch top rated tv shows", List.of(), () -> restClient(Action.LISTS).get()
                 .uri("/tv/top_rated")
                 .retrieve()
                 .body(TmdbSearchTvShowResponseDTO.class));
@@ -197,60 +309,76 @@ public class TmdbClient {
     }
 
     // =======================================================
-    // Trailer endpoints
+    // Internal helper
     // =======================================================
 
-    /**
-     * Fetches a list of movie video information from the TMDB API based on the provided TMDB movie ID.
-     *
-     * @param tmdbId The unique identifier of the movie in the TMDB database.
-     * @return A list of {@code TmdbVideoDTO} objects containing details about the videos associated with the specified movie.
-     * @throws TmdbClientException if the TMDB API returns an empty or invalid response.
-     */
-    public List<TmdbVideoDTO> fetchMovieTrailers(Long tmdbId) {
-        TmdbVideosResponseDTO response = execute("fetch movie trailers", () -> restClient.get()
-                .uri("/movie/{movie_id}/videos", tmdbId)
-                .retrieve()
-                .body(TmdbVideosResponseDTO.class));
-        if (response == null) {
-            throw  new TmdbClientException("TMDB returned an empty response for movie trailers");
-        }
-        return response.results();
+    private RestClient restClient(Action action) {
+        return restClients.get(action);
     }
 
-    /**
-     * Fetches the trailers for a TV show using its TMDB (The Movie Database) ID.
-     *
-     * @param tmdbId The TMDB ID of the TV show for which the trailers need to be fetched.
-     * @return A list of {@code TmdbVideoDTO} objects representing the trailers of the TV show.
-     * @throws TmdbClientException If the TMDB API returns an empty response, or if an error occurs during the API call.
-     */
-    public List<TmdbVideoDTO> fetchTvShowTrailers(Long tmdbId) {
-        TmdbVideosResponseDTO response = execute("fetch tv show trailers", () -> restClient.get()
-                .uri("/tv/{series_id}/videos", tmdbId)
+    private TmdbChangesResponseDTO changes(String action, String path, LocalDate startDate, LocalDate endDate, int page) {
+        TmdbChangesResponseDTO response = execute(action, List.of(startDate, endDate, page), () -> restClient(Action.LISTS).get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(path)
+                        .queryParam("start_date", startDate)
+                        .queryParam("end_date", endDate)
+                        .queryParam("page", page)
+                        .build())
                 .retrieve()
-                .body(TmdbVideosResponseDTO.class));
+                .body(TmdbChangesResponseDTO.class));
         if (response == null) {
-            throw  new TmdbClientException("TMDB returned an empty response for tv show trailers");
+            throw new TmdbClientException("TMDB returned an empty response for " + action.substring("fetch ".length()));
         }
-        return response.results();
+        return response;
     }
 
-    // =======================================================
-    // Internal helper
-    // =======================================================
-
     /**
      * Executes a given action by invoking the provided Supplier and handles any exceptions
-     * related to the TMDB API during the execution.
+     * related to the TMDB API during the execution. Concurrent executions of the same action
+     * with the same arguments are coalesced into a single upstream request, which goes through
+     * the circuit breaker and the rate limiter and is retried on transient failures
+     * (see {@link TmdbCircuitBreaker} and {@link TmdbRetryPolicy}). Every attempt is timed and
+     * counted by outcome in {@link TmdbMetrics}.
      *
      * @param <T> the type of the result produced by the supplier
      * @param action a string describing the action being executed (used for logging and error messages)
+     * @param arguments the arguments of the request, used with the action to identify identical requests
      * @param call the supplier representing the action to be executed
      * @return the result of the action executed by the supplier
      * @throws TmdbClientException if a TMDB-specific error or any other RestClient exception occurs
      */
-    private <T> T execute(String action, Supplier<T> call) {
+    private <T> T execute(String action, List<?> arguments, Supplier<T> call) {
+        return ServerTimings.time(ServerTimings.Category.TMDB, () -> requestCoalescer.execute(action + arguments,
+                () -> circuitBreaker.execute(action,
+                        () -> retryPolicy.execute(action,
+                                () -> metrics.record(action, () -> translateErrors(action, call))))));
+    }
+
+    /**
+     * Reads the {@code Retry-After} header of a 429 response, given either in seconds or as an HTTP date.
+     */
+    private static Duration retryAfter(RestClientResponseException e) {
+        if (e.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value() || e.getResponseHeaders() == null) {
+            return null;
+        }
+        String value = e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.strip()));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                Duration delay = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(value.strip(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException notDate) {
+                return null;
+            }
+        }
+    }
+
+    private <T> T translateErrors(String action, Supplier<T> call) {
         try {
             return call.get();
         } catch (RestClientResponseException e) {
@@ -260,6 +388,7 @@ public class TmdbClient {
             throw new TmdbClientException(
                     "TMDB " + action + " failed with status " + e.getStatusCode().value(),
                     e.getStatusCode(),
+                    retryAfter(e),
                     e
             );
         } catch (RestClientException e) {
@@ -0,0 +1,168 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbTvShowDTO;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded, TTL-based cache in front of the TMDB movie and TV show detail lookups.
+ * Eviction uses Caffeine's W-TinyLFU policy, and TMDB 404 responses are cached as well
+ * (with a shorter expiry) so unknown ids do not keep hitting the upstream API.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics.
+ * <p>
+ * Loaders run outside the cache's atomic compute: Caffeine computes inside a synchronized
+ * {@code ConcurrentHashMap} bin, which would pin a virtual thread for the whole TMDB round trip.
+ * Concurrent misses for the same id are deduplicated by {@link TmdbRequestCoalescer} instead.
+ * <p>
+ * Successfully loaded details are also kept in a size-bounded store without expiry, so the last
+ * known copy can still be served while TMDB is unavailable.
+ */
+@Component
+public class TmdbDetailsCache {
+
+    private final Cache<Long, Optional<TmdbMovieDTO>> movieDetails;
+    private final Cache<Long, Optional<TmdbTvShowDTO>> tvShowDetails;
+    private final Cache<Long, TmdbMovieDTO> lastKnownMovieDetails;
+    private final Cache<Long, TmdbTvShowDTO> lastKnownTvShowDetails;
+
+    public TmdbDetailsCache(@Value("${tmdb.cache.details.max-entries:10000}") long maxEntries,
+                            @Value("${tmdb.cache.details.ttl:6h}") Duration ttl,
+                            @Value("${tmdb.cache.details.not-found-ttl:10m}") Duration notFoundTtl,
+                            MeterRegistry meterRegistry) {
+        this.movieDetails = buildCache(maxEntries, ttl, notFoundTtl);
+        this.tvShowDetails = buildCache(maxEntries, ttl, notFoundTtl);
+        this.lastKnownMovieDetails = Caffeine.newBuilder().maximumSize(maxEntries).build();
+        this.lastKnownTvShowDetails = Caffeine.newBuilder().maximumSize(maxEntries).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, movieDetails, "tmdbMovieDetails");
+        CaffeineCacheMetrics.monitor(meterRegistry, tvShowDetails, "tmdbTvShowDetails");
+    }
+
+    /**
+     * Returns the cached details of a movie, loading them with the given loader on a miss.
+     *
+     * @param tmdbId the ID of the movie from TMDB
+     * @param loader the upstream call used when the movie is not cached
+     * @return the movie details
+     * @throws TmdbClientException if the movie is unknown to TMDB (possibly cached) or the loader fails
+     */
+    public TmdbMovieDTO getMovieDetails(Long tmdbId, Supplier<TmdbMovieDTO> loader) {
+        return get(movieDetails, lastKnownMovieDetails, tmdbId, "fetch movie details", loader);
+    }
+
+    /**
+     * Loads the details of a movie with the given loader, bypassing the cache, and caches the result.
+     * Used by the catalog refresh, which must not be served details older than TMDB's last change.
+     *
+     * @param tmdbId the ID of the movie from TMDB
+     * @param loader the upstream call
+     * @return the movie details
+     * @throws TmdbClientException if the movie is unknown to TMDB or the loader fails
+     */
+    public TmdbMovieDTO refreshMovieDetails(Long tmdbId, Supplier<TmdbMovieDTO> loader) {
+        return orNotFound(loadAndStore(movieDetails, lastKnownMovieDetails, tmdbId, loader), "fetch movie details");
+    }
+
+    /**
+     * Returns the last successfully loaded details of a movie, ignoring expiry.
+     *
+     * @param tmdbId the ID of the movie from TMDB
+     * @return the last known details, or empty if the movie was never loaded or has been evicted
+     */
+    public Optional<TmdbMovieDTO> lastKnownMovieDetails(Long tmdbId) {
+        return Optional.ofNullable(lastKnownMovieDetails.getIfPresent(tmdbId));
+    }
+
+    /**
+     * Returns the cached details of a TV show, loading them with the given loader on a miss.
+     *
+     * @param tmdbId the ID of the TV show from TMDB
+     * @param loader the upstream call used when the TV show is not cached
+     * @return the TV show details
+     * @throws TmdbClientException if the TV show is unknown to TMDB (possibly cached) or the loader fails
+     */
+    public TmdbTvShowDTO getTvShowDetails(Long tmdbId, Supplier<TmdbTvShowDTO> loader) {
+        return get(tvShowDetails, lastKnownTvShowDetails, tmdbId, "fetch tv show details", loader);
+    }
+
+    /**
+     * Loads the details of a TV show with the given loader, bypassing the cache, and caches the result.
+     * Used by the catalog refresh, which must not be served details older than TMDB's last change.
+     *
+     * @param tmdbId the ID of the TV show from TMDB
+     * @param loader the upstream call
+     * @return the TV show details
+     * @throws TmdbClientException if the TV show is unknown to TMDB or the loader fails
+     */
+    public TmdbTvShowDTO refreshTvShowDetails(Long tmdbId, Supplier<TmdbTvShowDTO> loader) {
+        return orNotFound(loadAndStore(tvShowDetails, lastKnownTvShowDetails, tmdbId, loader), "fetch tv show details");
+    }
+
+    /**
+     * Returns the last successfully loaded details of a TV show, ignoring expiry.
+     *
+     * @param tmdbId the ID of the TV show from TMDB
+     * @return the last known details, or empty if the show was never loaded or has been evicted
+     */
+    public Optional<TmdbTvShowDTO> lastKnownTvShowDetails(Long tmdbId) {
+        return Optional.ofNullable(lastKnownTvShowDetails.getIfPresent(tmdbId));
+    }
+
+    private static <T> Cache<Long, Optional<T>> buildCache(long maxEntries, Duration ttl, Duration notFoundTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.<Long, Optional<T>>creating((tmdbId, value) -> value.isPresent() ? ttl : notFoundTtl))
+                .recordStats()
+                .build();
+    }
+
+    private static <T> T get(Cache<Long, Optional<T>> cache, Cache<Long, T> lastKnown, Long tmdbId, String action,
+                             Supplier<T> loader) {
+        Optional<T> details = cache.getIfPresent(tmdbId);
+        if (details == null) {
+            details = loadAndStore(cache, lastKnown, tmdbId, loader);
+        }
+        return orNotFound(details, action);
+    }
+
+    private static <T> Optional<T> loadAndStore(Cache<Long, Optional<T>> cache, Cache<Long, T> lastKnown, Long tmdbId,
+                                                Supplier<T> loader) {
+        Optional<T> details = load(loader);
+        cache.put(tmdbId, details);
+        details.ifPresent(value -> lastKnown.put(tmdbId, value));
+        return details;
+    }
+
+    private static <T> T orNotFound(Optional<T> details, String action) {
+        return details.orElseThrow(() -> new TmdbClientException(
+                "TMDB " + action + " failed with status " + HttpStatus.NOT_FOUND.value(),
+                HttpStatus.NOT_FOUND,
+                null));
+    }
+
+    /**
+     * Invokes the loader, turning a TMDB 404 into an empty value so it can be cached.
+     * Any other failure is rethrown and nothing is cached.
+     */
+    private static <T> Optional<T> load(Supplier<T> loader) {
+        try {
+            return Optional.of(loader.get());
+        } catch (TmdbClientException e) {
+            if (e.getStatus() != null && e.getStatus().value() == HttpStatus.NOT_FOUND.value()) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP transport used by {@link TmdbClient}: one JDK {@link HttpClient} that keeps connections alive
+ * in its pool, negotiates HTTP/2 (multiplexing concurrent calls over a single connection), and has a
+ * connect timeout. Each kind of call gets its own request factory on top of that shared client, so
+ * they can have different read timeouts. Responses are requested with
+ * {@code Accept-Encoding: gzip, deflate} and decompressed transparently.
+ * <p>
+ * The JDK client reads its pool settings ({@code jdk.httpclient.keepalive.timeout},
+ * {@code jdk.httpclient.connectionPoolSize}) from system properties once per JVM, for every client in
+ * the process, so they are JVM flags (see the Dockerfile) rather than {@code tmdb.http.*} properties.
+ * The values in effect are logged at startup.
+ */
+@Component
+public class TmdbHttpTransport implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TmdbHttpTransport.class);
+
+    /**
+     * The kinds of TMDB calls that have their own read timeout.
+     */
+    public enum Action {
+        /** Interactive multi-search, where a fast failure beats a slow answer. */
+        SEARCH,
+        /** Movie and TV show details. */
+        DETAILS,
+        /** Popular, top-rated and upcoming lists, refreshed in the background. */
+        LISTS
+    }
+
+    private final HttpClient httpClient;
+    private final Map<Action, ClientHttpRequestFactory> requestFactories = new EnumMap<>(Action.class);
+
+    public TmdbHttpTransport(@Value("${tmdb.http.version:HTTP_2}") HttpClient.Version version,
+                             @Value("${tmdb.http.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${tmdb.http.compression:true}") boolean compression,
+                             @Value("${tmdb.http.read-timeout.search:3s}") Duration searchReadTimeout,
+                             @Value("${tmdb.http.read-timeout.details:5s}") Duration detailsReadTimeout,
+                             @Value("${tmdb.http.read-timeout.lists:10s}") Duration listsReadTimeout,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        logger.info("TMDB HTTP client: {}, connection pool keep-alive {}s, pool size {}", version,
+                System.getProperty("jdk.httpclient.keepalive.timeout", "30 (default)"),
+                System.getProperty("jdk.httpclient.connectionPoolSize", "unbounded (default)"));
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(connectTimeout);
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        this.httpClient = builder.build();
+
+        requestFactories.put(Action.SEARCH, requestFactory(searchReadTimeout, compression));
+        requestFactories.put(Action.DETAILS, requestFactory(detailsReadTimeout, compression));
+        requestFactories.put(Action.LISTS, requestFactory(listsReadTimeout, compression));
+    }
+
+    /**
+     * Returns the request factory for the given kind of call, sharing the pooled client.
+     *
+     * @param action the kind of TMDB call
+     * @return the request factory with that call's read timeout
+     */
+    public ClientHttpRequestFactory requestFactory(Action action) {
+        return requestFactories.get(action);
+    }
+
+    @Override
+    public void destroy() {
+        httpClient.close();
+    }
+
+    private JdkClientHttpRequestFactory requestFactory(Duration readTimeout, boolean compression) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        requestFactory.enableCompression(compression);
+        return requestFactory;
+    }
+}
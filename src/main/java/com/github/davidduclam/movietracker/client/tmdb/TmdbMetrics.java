@@ -0,0 +1,203 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of the HTTP calls made to TMDB, per action label such as
+ * {@code "fetch movie details"}:
+ * <ul>
+ *     <li>{@code tmdb.client.requests}: a timer of every attempt, from sending the request to
+ *     decoding the body, tagged with the outcome ({@code 2xx}, {@code 404}, {@code 429}, {@code 4xx},
+ *     {@code 5xx}, {@code timeout} or {@code io_error}) and published with percentiles and a histogram;</li>
+ *     <li>{@code tmdb.client.response.size}: the decoded response body size in bytes;</li>
+ *     <li>{@code tmdb.client.in.flight}: attempts currently waiting on TMDB.</li>
+ * </ul>
+ * Retries are timed as separate attempts; time spent waiting for the rate limiter or a retry backoff
+ * is not, so these metrics show TMDB's own share of a request's latency.
+ * <p>
+ * The body size is measured by this class acting as a {@link ClientHttpRequestInterceptor}. The
+ * interceptor runs on the thread making the attempt, so the action label reaches it through a
+ * thread-local set by {@link #record(String, Supplier)}.
+ */
+@Component
+public class TmdbMetrics implements ClientHttpRequestInterceptor {
+
+    private static final ThreadLocal<String> CURRENT_ACTION = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public TmdbMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times one attempt of a TMDB call and records its outcome.
+     *
+     * @param action the TMDB action label
+     * @param attempt the attempt, which reports failures as {@link TmdbClientException}
+     * @return the result of the attempt
+     */
+    public <T> T record(String action, Supplier<T> attempt) {
+        AtomicInteger actionInFlight = inFlight.computeIfAbsent(action, this::registerInFlightGauge);
+        String previousAction = CURRENT_ACTION.get();
+        CURRENT_ACTION.set(action);
+        actionInFlight.incrementAndGet();
+        long startNanos = System.nanoTime();
+        String outcome = "2xx";
+        try {
+            return attempt.get();
+        } catch (TmdbClientException e) {
+            outcome = outcome(e);
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "io_error";
+            throw e;
+        } finally {
+            actionInFlight.decrementAndGet();
+            CURRENT_ACTION.set(previousAction);
+            requestTimer(action, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String action = CURRENT_ACTION.get();
+        ClientHttpResponse response = execution.execute(request, body);
+        if (action == null) {
+            return response;
+        }
+        return new SizeRecordingResponse(response, DistributionSummary.builder("tmdb.client.response.size")
+                .description("Decoded size of TMDB response bodies")
+                .baseUnit("bytes")
+                .tag("action", action)
+                .register(meterRegistry));
+    }
+
+    private AtomicInteger registerInFlightGauge(String action) {
+        AtomicInteger gauge = new AtomicInteger();
+        Gauge.builder("tmdb.client.in.flight", gauge, AtomicInteger::get)
+                .description("TMDB requests currently waiting for a response")
+                .tag("action", action)
+                .register(meterRegistry);
+        return gauge;
+    }
+
+    private Timer requestTimer(String action, String outcome) {
+        return Timer.builder("tmdb.client.requests")
+                .description("Duration of TMDB request attempts, including reading the body")
+                .tag("action", action)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String outcome(TmdbClientException e) {
+        HttpStatusCode status = e.getStatus();
+        if (status == null) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof HttpTimeoutException || cause instanceof SocketTimeoutException) {
+                    return "timeout";
+                }
+            }
+            return "io_error";
+        }
+        if (status.value() == HttpStatus.NOT_FOUND.value()) {
+            return "404";
+        }
+        if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return "429";
+        }
+        return status.is5xxServerError() ? "5xx" : status.is4xxClientError() ? "4xx" : "2xx";
+    }
+
+    /**
+     * Counts the bytes read from the body and records the total once the response is closed.
+     */
+    private static final class SizeRecordingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final DistributionSummary size;
+        private long bytesRead;
+        private InputStream body;
+
+        private SizeRecordingResponse(ClientHttpResponse delegate, DistributionSummary size) {
+            this.delegate = delegate;
+            this.size = size;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            bytesRead++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int n = super.read(buffer, offset, length);
+                        if (n > 0) {
+                            bytesRead += n;
+                        }
+                        return n;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+            if (body != null) {
+                size.record(bytesRead);
+                body = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbCallRejectedException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side token bucket in front of every TMDB request. Permits refill at a steady rate up to
+ * a burst size; a caller that finds the bucket empty reserves the next permit and sleeps until it
+ * is due, so callers queue in arrival order instead of failing. Only a caller whose wait would
+ * run past its deadline is rejected.
+ * <p>
+ * When TMDB answers 429, {@link #pauseFor(Duration)} stops handing out permits until the
+ * {@code Retry-After} delay has passed. Sleeping happens outside the lock, so waiting virtual
+ * threads are never pinned. Wait time, queued callers, available permits, rejections and 429s
+ * are published as {@code tmdb.ratelimiter.*} metrics.
+ */
+@Component
+public class TmdbRateLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final double permitsPerNano;
+    private final double burst;
+    private volatile double storedPermits;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private final Counter throttled;
+
+    public TmdbRateLimiter(@Value("${tmdb.rate-limit.requests-per-second:40}") double requestsPerSecond,
+                           @Value("${tmdb.rate-limit.burst:20}") int burst,
+                           MeterRegistry meterRegistry) {
+        this.permitsPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.storedPermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+
+        this.waitTimer = Timer.builder("tmdb.ratelimiter.wait")
+                .description("Time TMDB calls waited for a rate limiter permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("tmdb.ratelimiter.rejected")
+                .description("TMDB calls rejected because no permit was available before their deadline")
+                .register(meterRegistry);
+        this.throttled = Counter.builder("tmdb.ratelimiter.throttled")
+                .description("429 responses received from TMDB")
+                .register(meterRegistry);
+        Gauge.builder("tmdb.ratelimiter.waiting", waiting, AtomicInteger::get)
+                .description("TMDB calls currently queued for a permit")
+                .register(meterRegistry);
+        Gauge.builder("tmdb.ratelimiter.available", this, limiter -> Math.max(0, limiter.storedPermits))
+                .description("Rate limiter permits available without waiting")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a permit, waiting for one if the bucket is empty or TMDB asked us to back off.
+     *
+     * @param action the TMDB action, used in the error message
+     * @param deadlineNanos the {@link System#nanoTime()} by which the permit must be granted
+     * @throws TmdbClientException with status 503 if no permit can be granted before the deadline
+     */
+    public void acquire(String action, long deadlineNanos) {
+        long readyAtNanos = reserve(action, deadlineNanos);
+        long waitedNanos = 0;
+        waiting.incrementAndGet();
+        try {
+            // A 429 may arrive while we sleep; keep waiting until the pause it started is over.
+            while (true) {
+                long now = System.nanoTime();
+                long pausedUntil = pausedUntil();
+                long until = Math.max(readyAtNanos, pausedUntil);
+                if (until <= now) {
+                    break;
+                }
+                if (until - deadlineNanos > 0) {
+                    // The permit reserved above is never used; leave no debt for the callers behind us.
+                    giveBack();
+                    rejected.increment();
+                    throw rejection(action);
+                }
+                sleep(action, until - now);
+                waitedNanos += System.nanoTime() - now;
+            }
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(waitedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops granting permits for the given delay, typically TMDB's {@code Retry-After}.
+     *
+     * @param delay how long to hold back all callers
+     */
+    public void pauseFor(Duration delay) {
+        throttled.increment();
+        lock.lock();
+        try {
+            long until = System.nanoTime() + delay.toNanos();
+            if (until - pausedUntilNanos > 0) {
+                pausedUntilNanos = until;
+            }
+            // No permits accumulate while paused, so the queue does not burst the moment it ends.
+            storedPermits = Math.min(storedPermits, 0);
+            lastRefillNanos = Math.max(lastRefillNanos, pausedUntilNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the next permit and returns when it is due, or rejects the caller if that is past the deadline.
+     */
+    private long reserve(String action, long deadlineNanos) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (now - lastRefillNanos > 0) {
+                storedPermits = Math.min(burst, storedPermits + (now - lastRefillNanos) * permitsPerNano);
+                lastRefillNanos = now;
+            }
+            long readyAt = Math.max(now, pausedUntilNanos);
+            if (storedPermits < 1) {
+                readyAt = Math.max(readyAt, lastRefillNanos + (long) ((1 - storedPermits) / permitsPerNano));
+            }
+            if (readyAt - deadlineNanos > 0) {
+                rejected.increment();
+                throw rejection(action);
+            }
+            storedPermits -= 1;
+            return readyAt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void giveBack() {
+        lock.lock();
+        try {
+            storedPermits = Math.min(burst, storedPermits + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long pausedUntil() {
+        lock.lock();
+        try {
+            return pausedUntilNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void sleep(String action, long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TmdbClientException("Interrupted while waiting to " + action, e);
+        }
+    }
+
+    private static TmdbCallRejectedException rejection(String action) {
+        return new TmdbCallRejectedException("TMDB rate limit reached, could not " + action + " in time");
+    }
+}
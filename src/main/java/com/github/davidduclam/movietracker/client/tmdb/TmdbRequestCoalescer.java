@@ -0,0 +1,74 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical TMDB requests. While a call for a given key is in flight,
+ * concurrent callers with the same key wait for it and share its result or exception, including an
+ * {@link Error}, instead of issuing their own upstream request. Nothing is kept once the call
+ * completes, so this works independently of any cache.
+ */
+@Component
+public class TmdbRequestCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+
+    public TmdbRequestCoalescer(@Value("${tmdb.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs the call, or joins the identical call already in flight.
+     *
+     * @param key identifies the request, typically the action and its arguments
+     * @param call the upstream request
+     * @param <T> the type of the result
+     * @return the result of the call, possibly produced by another caller
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        try {
+            T result = call.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too: a waiter parked on a future that is never completed would hang forever.
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs TMDB calls through the {@link TmdbRateLimiter} and retries the ones that failed transiently.
+ * A 429, a 5xx gateway status or an I/O error is retried up to {@code tmdb.retry.max-attempts} times.
+ * All TMDB calls are idempotent GETs, so retrying them is safe. Backoff is exponential with full jitter.
+ * A 429 also pauses the rate limiter for TMDB's {@code Retry-After}. Every call has a deadline
+ * ({@code tmdb.rate-limit.max-wait}) that bounds its queueing and backoff, and a retry that could not
+ * start before the deadline is not attempted.
+ */
+@Component
+public class TmdbRetryPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(TmdbRetryPolicy.class);
+
+    private final TmdbRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration maxWait;
+
+    public TmdbRetryPolicy(TmdbRateLimiter rateLimiter,
+                           MeterRegistry meterRegistry,
+                           @Value("${tmdb.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${tmdb.retry.initial-backoff:200ms}") Duration initialBackoff,
+                           @Value("${tmdb.retry.max-backoff:2s}") Duration maxBackoff,
+                           @Value("${tmdb.rate-limit.max-wait:3s}") Duration maxWait) {
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Executes the call once a rate limiter permit is granted, retrying transient failures.
+     *
+     * @param action a description of the call, used in metrics, logs and error messages
+     * @param call the TMDB request, translating failures into {@link TmdbClientException}
+     * @param <T> the type of the result
+     * @return the result of the first successful attempt
+     * @throws TmdbClientException from the last attempt, or if the deadline passed while waiting
+     */
+    public <T> T execute(String action, Supplier<T> call) {
+        long deadlineNanos = System.nanoTime() + maxWait.toNanos();
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire(action, deadlineNanos);
+            try {
+                return call.get();
+            } catch (TmdbClientException e) {
+                if (!isRetryable(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                Duration backoff = backoff(attempt);
+                if (isTooManyRequests(e)) {
+                    Duration retryAfter = e.getRetryAfter() == null ? backoff : e.getRetryAfter();
+                    rateLimiter.pauseFor(retryAfter);
+                    backoff = retryAfter;
+                }
+                if (System.nanoTime() + backoff.toNanos() - deadlineNanos > 0) {
+                    throw e;
+                }
+
+                logger.warn("TMDB {} failed (attempt {} of {}), retrying in {} ms: {}",
+                        action, attempt, maxAttempts, backoff.toMillis(), e.getMessage());
+                meterRegistry.counter("tmdb.retries", "action", action, "reason", reason(e)).increment();
+                // After a 429 the rate limiter holds the next attempt back until Retry-After has passed.
+                if (!isTooManyRequests(e)) {
+                    sleep(action, backoff);
+                }
+            }
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() << Math.min(attempt - 1, 20));
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static boolean isRetryable(TmdbClientException e) {
+        HttpStatusCode status = e.getStatus();
+        if (status == null) {
+            // I/O error or timeout, no response received
+            return e.getCause() != null;
+        }
+        int code = status.value();
+        return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static boolean isTooManyRequests(TmdbClientException e) {
+        return e.getStatus() != null && e.getStatus().value() == 429;
+    }
+
+    private static String reason(TmdbClientException e) {
+        return e.getStatus() == null ? "io_error" : String.valueOf(e.getStatus().value());
+    }
+
+    private static void sleep(String action, Duration backoff) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(backoff.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TmdbClientException("Interrupted while retrying " + action, e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.github.davidduclam.movietracker.client.tmdb.dto;
+
+public record TmdbChangeDTO(
+        Long id,
+        Boolean adult
+) {}
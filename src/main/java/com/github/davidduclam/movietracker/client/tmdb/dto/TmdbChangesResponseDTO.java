@@ -0,0 +1,10 @@
+package com.github.davidduclam.movietracker.client.tmdb.dto;
+
+import java.util.List;
+
+public record TmdbChangesResponseDTO(
+        int page,
+        List<TmdbChangeDTO> results,
+        int total_pages,
+        int total_results
+) {}
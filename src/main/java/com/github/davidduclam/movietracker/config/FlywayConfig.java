@@ -0,0 +1,24 @@
+package com.github.davidduclam.movietracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Checks {@code spring.flyway.enabled} again when the migrations are about to run. A jar built by the
+ * fast-start profile has its auto-configuration conditions evaluated at build time, where Flyway is
+ * enabled, so without this the "training" profile could not turn the migrations off.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${spring.flyway.enabled:true}") boolean enabled) {
+        return flyway -> {
+            if (enabled) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.davidduclam.movietracker.config;
 
+import com.github.davidduclam.movietracker.client.tmdb.TmdbHttpTransport;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
@@ -7,8 +8,13 @@ import org.springframework.web.client.RestClient;
 @Configuration
 public class RestClientConfig {
 
+    /**
+     * RestClient builder on top of the pooled TMDB transport (see {@link TmdbHttpTransport}),
+     * using the details read timeout unless a client picks a more specific request factory.
+     */
     @Bean
-    public RestClient.Builder restClientBuilder() {
-        return RestClient.builder();
+    public RestClient.Builder restClientBuilder(TmdbHttpTransport transport) {
+        return RestClient.builder()
+                .requestFactory(transport.requestFactory(TmdbHttpTransport.Action.DETAILS));
     }
 }
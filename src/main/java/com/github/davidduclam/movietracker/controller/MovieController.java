@@ -1,24 +1,32 @@
 package com.github.davidduclam.movietracker.controller;
 
+import com.github.davidduclam.movietracker.cache.EncodedResponseCache;
+import com.github.davidduclam.movietracker.dto.DetailsLookupDTO;
 import com.github.davidduclam.movietracker.dto.MovieResponseDTO;
 import com.github.davidduclam.movietracker.dto.TrailerDTO;
 import com.github.davidduclam.movietracker.service.MovieService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/movies")
 public class MovieController {
     private final MovieService movieService;
+    private final EncodedResponseCache encodedResponseCache;
 
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, EncodedResponseCache encodedResponseCache) {
         this.movieService = movieService;
+        this.encodedResponseCache = encodedResponseCache;
     }
 
     @GetMapping("/{tmdbId}")
-    public MovieResponseDTO fetchMovieDetails(@PathVariable Long tmdbId) {
-        return movieService.fetchMovieDetails(tmdbId);
+    public ResponseEntity<byte[]> fetchMovieDetails(@PathVariable Long tmdbId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        DetailsLookupDTO<MovieResponseDTO> lookup = movieService.lookupMovieDetails(tmdbId);
+        return encodedResponseCache.get("movie:" + tmdbId, lookup.details())
+                .toResponseEntity(ifNoneMatch, acceptEncoding, StaleHeaders.of(lookup));
     }
 
     @GetMapping("/{tmdbId}/trailer")
@@ -27,17 +35,23 @@ public class MovieController {
     }
 
     @GetMapping("/popular")
-    public List<MovieResponseDTO> popularMovies() {
-        return movieService.popularMovies();
+    public ResponseEntity<byte[]> popularMovies(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return encodedResponseCache.get("movies:popular", movieService.popularMovies())
+                .toResponseEntity(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/top-rated")
-    public List<MovieResponseDTO> topRatedMovies() {
-        return movieService.topRatedMovies();
+    public ResponseEntity<byte[]> topRatedMovies(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return encodedResponseCache.get("movies:top-rated", movieService.topRatedMovies())
+                .toResponseEntity(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/upcoming")
-    public List<MovieResponseDTO> upcomingMovies() {
-        return movieService.upcomingMovies();
+    public ResponseEntity<byte[]> upcomingMovies(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return encodedResponseCache.get("movies:upcoming", movieService.upcomingMovies())
+                .toResponseEntity(ifNoneMatch, acceptEncoding);
     }
 }
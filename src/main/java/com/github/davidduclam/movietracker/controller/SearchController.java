@@ -1,6 +1,7 @@
 package com.github.davidduclam.movietracker.controller;
 
 import com.github.davidduclam.movietracker.dto.SearchResultDTO;
+import com.github.davidduclam.movietracker.model.SearchMode;
 import com.github.davidduclam.movietracker.service.SearchService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,7 +20,9 @@ public class SearchController {
     }
 
     @GetMapping("/multi")
-    public List<SearchResultDTO> searchMulti(@RequestParam String query) {
-        return searchService.searchMulti(query);
+    public List<SearchResultDTO> searchMulti(@RequestParam String query,
+                                             @RequestParam(defaultValue = "en-US") String language,
+                                             @RequestParam(required = false) SearchMode mode) {
+        return searchService.searchMulti(query, language, mode);
     }
 }
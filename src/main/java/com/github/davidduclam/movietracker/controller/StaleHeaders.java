@@ -0,0 +1,28 @@
+package com.github.davidduclam.movietracker.controller;
+
+import com.github.davidduclam.movietracker.dto.DetailsLookupDTO;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+
+/**
+ * Response headers marking details served from a fallback while TMDB is unavailable:
+ * {@code X-Stale-Source: cache} or {@code X-Stale-Source: database}.
+ */
+final class StaleHeaders {
+
+    static final String STALE_SOURCE = "X-Stale-Source";
+
+    private StaleHeaders() {
+    }
+
+    static HttpHeaders of(DetailsLookupDTO<?> lookup) {
+        if (!lookup.isStale()) {
+            return HttpHeaders.EMPTY;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(STALE_SOURCE, lookup.source().name().toLowerCase(Locale.ROOT));
+        headers.setCacheControl("no-cache");
+        return headers;
+    }
+}
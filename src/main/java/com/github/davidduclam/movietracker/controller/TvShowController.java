@@ -1,24 +1,32 @@
 package com.github.davidduclam.movietracker.controller;
 
-import com.github.davidduclam.movietracker.dto.TrailerDTO;
+import com.github.davidduclam.movietracker.cache.EncodedResponseCache;
+import com.github.davidduclam.movietracker.dto.DetailsLookupDTO;
 import com.github.davidduclam.movietracker.dto.TvShowResponseDTO;
+import com.github.davidduclam.movietracker.dto.TrailerDTO;
 import com.github.davidduclam.movietracker.service.TvShowService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/shows")
 public class TvShowController {
     private final TvShowService tvShowService;
+    private final EncodedResponseCache encodedResponseCache;
 
-    public TvShowController(TvShowService tvShowService) {
+    public TvShowController(TvShowService tvShowService, EncodedResponseCache encodedResponseCache) {
         this.tvShowService = tvShowService;
+        this.encodedResponseCache = encodedResponseCache;
     }
 
     @GetMapping("/{tmdbId}")
-    public TvShowResponseDTO fetchTvShowDetails(@PathVariable Long tmdbId) {
-        return tvShowService.fetchTvShowDetails(tmdbId);
+    public ResponseEntity<byte[]> fetchTvShowDetails(@PathVariable Long tmdbId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        DetailsLookupDTO<TvShowResponseDTO> lookup = tvShowService.lookupTvShowDetails(tmdbId);
+        return encodedResponseCache.get("show:" + tmdbId, lookup.details())
+                .toResponseEntity(ifNoneMatch, acceptEncoding, StaleHeaders.of(lookup));
     }
 
     @GetMapping("/{tmdbId}/trailer")
@@ -27,12 +35,16 @@ public class TvShowController {
     }
 
     @GetMapping("/popular")
-    public List<TvShowResponseDTO> popularTvShows() {
-        return tvShowService.popularTvShows();
+    public ResponseEntity<byte[]> popularTvShows(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return encodedResponseCache.get("shows:popular", tvShowService.popularTvShows())
+                .toResponseEntity(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/top-rated")
-    public List<TvShowResponseDTO> topRatedTvShows() {
-        return tvShowService.topRatedTvShows();
+    public ResponseEntity<byte[]> topRatedTvShows(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return encodedResponseCache.get("shows:top-rated", tvShowService.topRatedTvShows())
+                .toResponseEntity(ifNoneMatch, acceptEncoding);
     }
 }
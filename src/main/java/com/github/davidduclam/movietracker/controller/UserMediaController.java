@@ -1,11 +1,22 @@
 package com.github.davidduclam.movietracker.controller;
 
+import com.github.davidduclam.movietracker.dto.UserMediaBatchRequestDTO;
+import com.github.davidduclam.movietracker.dto.UserMediaBatchResultDTO;
 import com.github.davidduclam.movietracker.dto.UserMediaRequestDTO;
 import com.github.davidduclam.movietracker.dto.WatchlistItemDTO;
+import com.github.davidduclam.movietracker.dto.WatchlistPageDTO;
+import com.github.davidduclam.movietracker.error.UserNotFoundException;
+import com.github.davidduclam.movietracker.model.ExportFormat;
 import com.github.davidduclam.movietracker.model.UserMedia;
 import com.github.davidduclam.movietracker.service.UserMediaService;
+import com.github.davidduclam.movietracker.service.UserService;
+import com.github.davidduclam.movietracker.sql.StatementBudget;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -13,23 +24,57 @@ import java.util.List;
 @RequestMapping
 public class UserMediaController {
     private final UserMediaService userMediaService;
+    private final UserService userService;
 
-    public UserMediaController(UserMediaService userMediaService) {
+    public UserMediaController(UserMediaService userMediaService, UserService userService) {
         this.userMediaService = userMediaService;
+        this.userService = userService;
     }
 
+    @StatementBudget(6)
     @PostMapping("/users/{user_id}/media")
     public UserMedia saveMediaToDb(@PathVariable Long user_id, @Valid @RequestBody UserMediaRequestDTO userMediaRequestDTO) {
         return userMediaService.addMediaToUser(user_id, userMediaRequestDTO);
     }
 
+    @PostMapping("/users/{user_id}/media/batch")
+    public List<UserMediaBatchResultDTO> saveMediaBatchToDb(@PathVariable Long user_id, @Valid @RequestBody UserMediaBatchRequestDTO batchRequestDTO) {
+        return userMediaService.addMediaToUserBatch(user_id, batchRequestDTO.items());
+    }
+
+    @StatementBudget(2)
     @GetMapping("/users/{user_id}/media")
     public List<WatchlistItemDTO> getMediaFromUser(@PathVariable Long user_id) {
         return userMediaService.getMediaFromUser(user_id);
     }
 
+    @StatementBudget(2)
+    @GetMapping("/users/{user_id}/media/page")
+    public WatchlistPageDTO getMediaPageFromUser(@PathVariable Long user_id,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        return userMediaService.getMediaPageFromUser(user_id, after, limit);
+    }
+
+    @GetMapping("/users/{user_id}/media/export")
+    public ResponseEntity<StreamingResponseBody> exportMediaFromUser(@PathVariable Long user_id,
+                                                                     @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        userService.getUserById(user_id).orElseThrow(UserNotFoundException::new);
+        StreamingResponseBody body = outputStream -> userMediaService.exportMediaFromUser(user_id, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"watchlist-" + user_id + "." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+
     @DeleteMapping("/users/{user_id}/media")
     public void deleteMediaFromUser(@PathVariable Long user_id, @Valid @RequestBody UserMediaRequestDTO userMediaRequestDTO) {
         userMediaService.deleteMediaFromUser(user_id, userMediaRequestDTO);
     }
+
+    @DeleteMapping("/users/{user_id}/media/batch")
+    public List<UserMediaBatchResultDTO> deleteMediaBatchFromUser(@PathVariable Long user_id, @Valid @RequestBody UserMediaBatchRequestDTO batchRequestDTO) {
+        return userMediaService.deleteMediaFromUserBatch(user_id, batchRequestDTO.items());
+    }
 }
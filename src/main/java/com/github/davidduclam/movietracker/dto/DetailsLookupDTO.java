@@ -0,0 +1,12 @@
+package com.github.davidduclam.movietracker.dto;
+
+import com.github.davidduclam.movietracker.model.DetailsSource;
+
+public record DetailsLookupDTO<T>(
+        T details,
+        DetailsSource source
+) {
+    public boolean isStale() {
+        return source != DetailsSource.TMDB;
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.davidduclam.movietracker.dto;
+
+import java.time.Instant;
+
+/**
+ * Projection of a stored movie or TV show that is due for a catalog refresh.
+ * {@code lastRefreshedAt} is null for rows that were never refreshed.
+ */
+public record RefreshDueDTO(
+        Long tmdbId,
+        Instant lastRefreshedAt
+) {}
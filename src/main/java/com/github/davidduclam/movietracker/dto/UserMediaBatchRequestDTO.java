@@ -0,0 +1,14 @@
+package com.github.davidduclam.movietracker.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record UserMediaBatchRequestDTO(
+    @NotEmpty(message = "items must not be empty")
+    @Size(max = 500, message = "at most 500 items per batch")
+    List<@NotNull @Valid UserMediaRequestDTO> items
+) {}
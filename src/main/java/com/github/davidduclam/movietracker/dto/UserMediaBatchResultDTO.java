@@ -0,0 +1,11 @@
+package com.github.davidduclam.movietracker.dto;
+
+import com.github.davidduclam.movietracker.model.BatchItemStatus;
+import com.github.davidduclam.movietracker.model.MediaType;
+
+public record UserMediaBatchResultDTO(
+        Long tmdbId,
+        MediaType mediaType,
+        BatchItemStatus status,
+        String message
+) {}
@@ -8,4 +8,6 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
         @JsonSubTypes.Type(value = MovieWatchlistItemDTO.class, name = "MOVIE"),
         @JsonSubTypes.Type(value = TvShowWatchlistItemDTO.class, name = "TV")
 })
-public sealed interface WatchlistItemDTO permits MovieWatchlistItemDTO, TvShowWatchlistItemDTO {}
+public sealed interface WatchlistItemDTO permits MovieWatchlistItemDTO, TvShowWatchlistItemDTO {
+    Long userMediaId();
+}
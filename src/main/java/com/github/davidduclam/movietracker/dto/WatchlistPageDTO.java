@@ -0,0 +1,8 @@
+package com.github.davidduclam.movietracker.dto;
+
+import java.util.List;
+
+public record WatchlistPageDTO(
+        List<WatchlistItemDTO> items,
+        String nextCursor
+) {}
@@ -0,0 +1,21 @@
+package com.github.davidduclam.movietracker.dto;
+
+import com.github.davidduclam.movietracker.model.MediaType;
+
+import java.time.LocalDate;
+
+/**
+ * Flat projection of a user_media row joined against its movies or tv_shows catalog entry.
+ * Catalog columns are null when the referenced title has not been stored yet.
+ */
+public record WatchlistRowDTO(
+        Long userMediaId,
+        Long tmdbId,
+        MediaType mediaType,
+        String title,
+        String overview,
+        LocalDate releaseDate,
+        String posterPath,
+        String backdropPath,
+        Double voteAverage
+) {}
@@ -0,0 +1,4 @@
+package com.github.davidduclam.movietracker.error;
+
+public class InvalidCursorException extends RuntimeException {
+}
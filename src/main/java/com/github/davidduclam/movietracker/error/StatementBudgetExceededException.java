@@ -0,0 +1,8 @@
+package com.github.davidduclam.movietracker.error;
+
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
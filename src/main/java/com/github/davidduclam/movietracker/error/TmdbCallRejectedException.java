@@ -0,0 +1,14 @@
+package com.github.davidduclam.movietracker.error;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A TMDB call that was turned away locally, by the rate limiter or the open circuit breaker,
+ * without reaching TMDB. Answered with a 503 like an upstream outage.
+ */
+public class TmdbCallRejectedException extends TmdbClientException {
+
+    public TmdbCallRejectedException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE, null);
+    }
+}
@@ -1,12 +1,16 @@
 package com.github.davidduclam.movietracker.error;
 
 import lombok.Getter;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 
+import java.time.Duration;
+
 @Getter
 public class TmdbClientException extends RuntimeException {
 
     private final HttpStatusCode status;
+    private final Duration retryAfter;
 
     public TmdbClientException(String message) {
         this(message, null, null);
@@ -17,8 +21,23 @@ public class TmdbClientException extends RuntimeException {
     }
 
     public TmdbClientException(String message, HttpStatusCode status, Throwable cause) {
+        this(message, status, null, cause);
+    }
+
+    public TmdbClientException(String message, HttpStatusCode status, Duration retryAfter, Throwable cause) {
         super(message, cause);
         this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Whether the failure means TMDB could not serve the request right now (no response, a 5xx,
+     * a 429, or a call rejected locally to protect it), as opposed to a client error such as 404.
+     *
+     * @return true if the same request may succeed later
+     */
+    public boolean isUpstreamUnavailable() {
+        return status == null || status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value();
     }
 
 }
@@ -0,0 +1,14 @@
+package com.github.davidduclam.movietracker.model;
+
+public enum BatchItemStatus {
+    /** The title was added to the watchlist. */
+    ADDED,
+    /** The title was already on the watchlist. */
+    ALREADY_EXISTS,
+    /** The title was removed from the watchlist. */
+    REMOVED,
+    /** The title is unknown to TMDB, or was not on the watchlist when removing. */
+    NOT_FOUND,
+    /** The title could not be fetched from TMDB; retrying the item later may succeed. */
+    FAILED
+}
@@ -0,0 +1,10 @@
+package com.github.davidduclam.movietracker.model;
+
+public enum DetailsSource {
+    /** Fresh from TMDB, or from the details cache within its expiry. */
+    TMDB,
+    /** The last details fetched from TMDB, past their expiry, served while TMDB is unavailable. */
+    CACHE,
+    /** The stored movies / tv_shows row, served while TMDB is unavailable. */
+    DATABASE
+}
@@ -3,14 +3,16 @@ package com.github.davidduclam.movietracker.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", uniqueConstraints = @UniqueConstraint(name = "ux_movies_tmdb_id", columnNames = {"tmdb_id"}))
 public class Movie {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movies_seq")
+    @SequenceGenerator(name = "movies_seq", sequenceName = "movies_seq", allocationSize = 50)
     private Long Id;
 
     private Long tmdbId;
@@ -20,4 +22,5 @@ public class Movie {
     private String backdropPath;
     private String overview;
     private Double voteAverage;
+    private Instant lastRefreshedAt;
 }
@@ -0,0 +1,8 @@
+package com.github.davidduclam.movietracker.model;
+
+public enum SearchMode {
+    /** Always search TMDB. */
+    REMOTE,
+    /** Search the stored movies and TV shows first and fall back to TMDB when there are too few results. */
+    LOCAL_FIRST
+}
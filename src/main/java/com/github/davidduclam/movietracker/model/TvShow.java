@@ -3,14 +3,16 @@ package com.github.davidduclam.movietracker.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "tv_shows")
+@Table(name = "tv_shows", uniqueConstraints = @UniqueConstraint(name = "ux_tv_shows_tmdb_id", columnNames = {"tmdb_id"}))
 public class TvShow {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tv_shows_seq")
+    @SequenceGenerator(name = "tv_shows_seq", sequenceName = "tv_shows_seq", allocationSize = 50)
     private Long id;
 
     private Long tmdbId;
@@ -20,4 +22,5 @@ public class TvShow {
     private String backdropPath;
     private String overview;
     private Double voteAverage;
+    private Instant lastRefreshedAt;
 }
@@ -7,10 +7,13 @@ import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "user_media")
+@Table(name = "user_media", uniqueConstraints = @UniqueConstraint(
+        name = "ux_user_media_user_id_media_type_tmdb_id",
+        columnNames = {"user_id", "media_type", "tmdb_id"}))
 public class UserMedia {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_media_seq")
+    @SequenceGenerator(name = "user_media_seq", sequenceName = "user_media_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
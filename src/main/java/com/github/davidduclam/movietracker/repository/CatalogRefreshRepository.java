@@ -0,0 +1,102 @@
+package com.github.davidduclam.movietracker.repository;
+
+import com.github.davidduclam.movietracker.model.Movie;
+import com.github.davidduclam.movietracker.model.TvShow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JDBC batch writes for the background catalog refresh. Each method sends all of its rows as one
+ * JDBC batch, matching stored rows on their TMDb ID, and stamps them with the refresh time.
+ */
+@Repository
+public class CatalogRefreshRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogRefreshRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Overwrites the stored details of the movies with the given ones.
+     *
+     * @param movies the refreshed movies
+     * @param refreshedAt the time of the refresh
+     */
+    public void updateMovies(List<Movie> movies, Instant refreshedAt) {
+        JdbcBatches.update(jdbcTemplate, """
+                update movies
+                set title = ?, release_date = ?, poster_path = ?, backdrop_path = ?, overview = ?, vote_average = ?,
+                    last_refreshed_at = ?
+                where tmdb_id = ?
+                """, movies, (ps, movie) -> {
+            ps.setString(1, movie.getTitle());
+            ps.setObject(2, movie.getReleaseDate() == null ? null : Date.valueOf(movie.getReleaseDate()), Types.DATE);
+            ps.setString(3, movie.getPosterPath());
+            ps.setString(4, movie.getBackdropPath());
+            ps.setString(5, movie.getOverview());
+            ps.setObject(6, movie.getVoteAverage(), Types.DOUBLE);
+            ps.setTimestamp(7, Timestamp.from(refreshedAt));
+            ps.setLong(8, movie.getTmdbId());
+        });
+    }
+
+    /**
+     * Overwrites the stored details of the TV shows with the given ones.
+     *
+     * @param tvShows the refreshed TV shows
+     * @param refreshedAt the time of the refresh
+     */
+    public void updateTvShows(List<TvShow> tvShows, Instant refreshedAt) {
+        JdbcBatches.update(jdbcTemplate, """
+                update tv_shows
+                set title = ?, first_air_date = ?, poster_path = ?, backdrop_path = ?, overview = ?, vote_average = ?,
+                    last_refreshed_at = ?
+                where tmdb_id = ?
+                """, tvShows, (ps, tvShow) -> {
+            ps.setString(1, tvShow.getTitle());
+            ps.setObject(2, tvShow.getFirstAirDate() == null ? null : Date.valueOf(tvShow.getFirstAirDate()), Types.DATE);
+            ps.setString(3, tvShow.getPosterPath());
+            ps.setString(4, tvShow.getBackdropPath());
+            ps.setString(5, tvShow.getOverview());
+            ps.setObject(6, tvShow.getVoteAverage(), Types.DOUBLE);
+            ps.setTimestamp(7, Timestamp.from(refreshedAt));
+            ps.setLong(8, tvShow.getTmdbId());
+        });
+    }
+
+    /**
+     * Stamps movies with the refresh time without changing their details, for titles TMDB no longer
+     * knows, so they are not fetched again on every refresh.
+     *
+     * @param tmdbIds the TMDb IDs of the movies
+     * @param refreshedAt the time of the refresh
+     */
+    public void markMoviesRefreshed(List<Long> tmdbIds, Instant refreshedAt) {
+        JdbcBatches.update(jdbcTemplate, "update movies set last_refreshed_at = ? where tmdb_id = ?", tmdbIds, (ps, tmdbId) -> {
+            ps.setTimestamp(1, Timestamp.from(refreshedAt));
+            ps.setLong(2, tmdbId);
+        });
+    }
+
+    /**
+     * Stamps TV shows with the refresh time without changing their details, for titles TMDB no longer
+     * knows, so they are not fetched again on every refresh.
+     *
+     * @param tmdbIds the TMDb IDs of the TV shows
+     * @param refreshedAt the time of the refresh
+     */
+    public void markTvShowsRefreshed(List<Long> tmdbIds, Instant refreshedAt) {
+        JdbcBatches.update(jdbcTemplate, "update tv_shows set last_refreshed_at = ? where tmdb_id = ?", tmdbIds, (ps, tmdbId) -> {
+            ps.setTimestamp(1, Timestamp.from(refreshedAt));
+            ps.setLong(2, tmdbId);
+        });
+    }
+}
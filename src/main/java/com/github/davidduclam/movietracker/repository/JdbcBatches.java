@@ -0,0 +1,33 @@
+package com.github.davidduclam.movietracker.repository;
+
+import com.github.davidduclam.movietracker.timing.ServerTimings;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.List;
+
+/**
+ * Sends a list of rows as a single JDBC batch, for the batch repositories.
+ */
+final class JdbcBatches {
+
+    private JdbcBatches() {
+    }
+
+    /**
+     * Runs the statement once per row in one JDBC batch, counting its time towards the current
+     * request's database time when there is one.
+     *
+     * @param jdbcTemplate the template to run the batch with
+     * @param sql the statement to run for every row
+     * @param rows the rows, possibly empty
+     * @param setter binds one row to the statement
+     * @return the update count of every row, in input order
+     */
+    static <T> int[] update(JdbcTemplate jdbcTemplate, String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        return ServerTimings.time(ServerTimings.Category.DB, () -> jdbcTemplate.batchUpdate(sql, rows, rows.size(), setter)[0]);
+    }
+}
@@ -1,12 +1,84 @@
 package com.github.davidduclam.movietracker.repository;
 
+import com.github.davidduclam.movietracker.dto.MovieSearchResultDTO;
+import com.github.davidduclam.movietracker.dto.RefreshDueDTO;
 import com.github.davidduclam.movietracker.model.Movie;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface MovieRepository extends JpaRepository<Movie, Long> {
 
     Optional<Movie> findByTmdbId(Long tmdbId);
 
+    boolean existsByTmdbId(Long tmdbId);
+
+    /**
+     * Returns which of the given TMDb IDs are already stored, in a single query.
+     *
+     * @param tmdbIds the TMDb IDs to look up
+     * @return the subset of {@code tmdbIds} that have a stored row
+     */
+    @Query("select m.tmdbId from Movie m where m.tmdbId in :tmdbIds")
+    Set<Long> findStoredTmdbIds(@Param("tmdbIds") Collection<Long> tmdbIds);
+
+    /**
+     * Returns which of the given TMDb IDs are stored and were last refreshed before the given time,
+     * with their last refresh time, so callers can order the due rows across several lookups.
+     *
+     * @param tmdbIds the TMDb IDs to look up
+     * @param refreshedBefore only rows last refreshed before this time are returned
+     * @return the stored movies due for a refresh, in no particular order
+     */
+    @Query("""
+            select new com.github.davidduclam.movietracker.dto.RefreshDueDTO(m.tmdbId, m.lastRefreshedAt)
+            from Movie m
+            where m.tmdbId in :tmdbIds and (m.lastRefreshedAt is null or m.lastRefreshedAt < :refreshedBefore)
+            """)
+    List<RefreshDueDTO> findRefreshDue(@Param("tmdbIds") Collection<Long> tmdbIds,
+                                       @Param("refreshedBefore") Instant refreshedBefore);
+
+    /**
+     * Inserts a movie unless one with the same TMDb ID is already stored, in a single statement.
+     * Relies on the unique index on movies(tmdb_id), so concurrent inserts cannot create duplicates.
+     *
+     * @param movie the movie to insert
+     * @return 1 if the movie was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into movies (id, tmdb_id, title, release_date, poster_path, backdrop_path, overview, vote_average, last_refreshed_at)
+            values (nextval('movies_seq'), :#{#movie.tmdbId}, :#{#movie.title}, :#{#movie.releaseDate}, :#{#movie.posterPath},
+                    :#{#movie.backdropPath}, :#{#movie.overview}, :#{#movie.voteAverage}, current_timestamp)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("movie") Movie movie);
+
+    /**
+     * Searches the stored movies whose lower-cased title contains the given pattern,
+     * best rated first. Served by the trigram index on lower(title).
+     *
+     * @param pattern the lower-cased search text, with LIKE wildcards escaped using a backslash
+     * @param limit the maximum number of results
+     * @return the matching movies as search results
+     */
+    @Query("""
+            select new com.github.davidduclam.movietracker.dto.MovieSearchResultDTO(
+                m.tmdbId, 'movie', m.title, m.releaseDate, m.posterPath, m.voteAverage)
+            from Movie m
+            where lower(m.title) like concat('%', :pattern, '%') escape '\\'
+            order by m.voteAverage desc nulls last
+            """)
+    List<MovieSearchResultDTO> searchByTitle(@Param("pattern") String pattern, Limit limit);
+
 }
@@ -1,12 +1,84 @@
 package com.github.davidduclam.movietracker.repository;
 
+import com.github.davidduclam.movietracker.dto.RefreshDueDTO;
+import com.github.davidduclam.movietracker.dto.TvShowSearchResultDTO;
 import com.github.davidduclam.movietracker.model.TvShow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface TvShowRepository extends JpaRepository<TvShow, Long> {
 
     Optional<TvShow> findByTmdbId(Long tmdbId);
 
+    boolean existsByTmdbId(Long tmdbId);
+
+    /**
+     * Returns which of the given TMDb IDs are already stored, in a single query.
+     *
+     * @param tmdbIds the TMDb IDs to look up
+     * @return the subset of {@code tmdbIds} that have a stored row
+     */
+    @Query("select t.tmdbId from TvShow t where t.tmdbId in :tmdbIds")
+    Set<Long> findStoredTmdbIds(@Param("tmdbIds") Collection<Long> tmdbIds);
+
+    /**
+     * Returns which of the given TMDb IDs are stored and were last refreshed before the given time,
+     * with their last refresh time, so callers can order the due rows across several lookups.
+     *
+     * @param tmdbIds the TMDb IDs to look up
+     * @param refreshedBefore only rows last refreshed before this time are returned
+     * @return the stored TV shows due for a refresh, in no particular order
+     */
+    @Query("""
+            select new com.github.davidduclam.movietracker.dto.RefreshDueDTO(t.tmdbId, t.lastRefreshedAt)
+            from TvShow t
+            where t.tmdbId in :tmdbIds and (t.lastRefreshedAt is null or t.lastRefreshedAt < :refreshedBefore)
+            """)
+    List<RefreshDueDTO> findRefreshDue(@Param("tmdbIds") Collection<Long> tmdbIds,
+                                       @Param("refreshedBefore") Instant refreshedBefore);
+
+    /**
+     * Inserts a TV show unless one with the same TMDB ID is already stored, in a single statement.
+     * Relies on the unique index on tv_shows(tmdb_id), so concurrent inserts cannot create duplicates.
+     *
+     * @param tvShow the TV show to insert
+     * @return 1 if the TV show was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into tv_shows (id, tmdb_id, title, first_air_date, poster_path, backdrop_path, overview, vote_average, last_refreshed_at)
+            values (nextval('tv_shows_seq'), :#{#tvShow.tmdbId}, :#{#tvShow.title}, :#{#tvShow.firstAirDate}, :#{#tvShow.posterPath},
+                    :#{#tvShow.backdropPath}, :#{#tvShow.overview}, :#{#tvShow.voteAverage}, current_timestamp)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("tvShow") TvShow tvShow);
+
+    /**
+     * Searches the stored TV shows whose lower-cased title contains the given pattern,
+     * best rated first. Served by the trigram index on lower(title).
+     *
+     * @param pattern the lower-cased search text, with LIKE wildcards escaped using a backslash
+     * @param limit the maximum number of results
+     * @return the matching TV shows as search results
+     */
+    @Query("""
+            select new com.github.davidduclam.movietracker.dto.TvShowSearchResultDTO(
+                t.tmdbId, 'tv', t.title, t.firstAirDate, t.posterPath, t.voteAverage)
+            from TvShow t
+            where lower(t.title) like concat('%', :pattern, '%') escape '\\'
+            order by t.voteAverage desc nulls last
+            """)
+    List<TvShowSearchResultDTO> searchByTitle(@Param("pattern") String pattern, Limit limit);
+
 }
@@ -0,0 +1,107 @@
+package com.github.davidduclam.movietracker.repository;
+
+import com.github.davidduclam.movietracker.dto.UserMediaRequestDTO;
+import com.github.davidduclam.movietracker.model.Movie;
+import com.github.davidduclam.movietracker.model.TvShow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC batch writes for bulk watchlist changes. Each method sends all of its rows as one
+ * JDBC batch and returns the update count of every row, in input order. The insert methods skip
+ * rows that already exist (ON CONFLICT DO NOTHING), which shows up as an update count of 0.
+ * Callers are expected to run these inside a transaction.
+ */
+@Repository
+public class UserMediaBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserMediaBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the movies that are not stored yet.
+     *
+     * @param movies the movies to insert
+     * @return per movie, 1 if it was inserted or 0 if it was already stored
+     */
+    public int[] insertMoviesIfAbsent(List<Movie> movies) {
+        return JdbcBatches.update(jdbcTemplate, """
+                insert into movies (id, tmdb_id, title, release_date, poster_path, backdrop_path, overview, vote_average, last_refreshed_at)
+                values (nextval('movies_seq'), ?, ?, ?, ?, ?, ?, ?, current_timestamp)
+                on conflict do nothing
+                """, movies, (ps, movie) -> {
+            ps.setLong(1, movie.getTmdbId());
+            ps.setString(2, movie.getTitle());
+            ps.setObject(3, movie.getReleaseDate() == null ? null : Date.valueOf(movie.getReleaseDate()), Types.DATE);
+            ps.setString(4, movie.getPosterPath());
+            ps.setString(5, movie.getBackdropPath());
+            ps.setString(6, movie.getOverview());
+            ps.setObject(7, movie.getVoteAverage(), Types.DOUBLE);
+        });
+    }
+
+    /**
+     * Inserts the TV shows that are not stored yet.
+     *
+     * @param tvShows the TV shows to insert
+     * @return per TV show, 1 if it was inserted or 0 if it was already stored
+     */
+    public int[] insertTvShowsIfAbsent(List<TvShow> tvShows) {
+        return JdbcBatches.update(jdbcTemplate, """
+                insert into tv_shows (id, tmdb_id, title, first_air_date, poster_path, backdrop_path, overview, vote_average, last_refreshed_at)
+                values (nextval('tv_shows_seq'), ?, ?, ?, ?, ?, ?, ?, current_timestamp)
+                on conflict do nothing
+                """, tvShows, (ps, tvShow) -> {
+            ps.setLong(1, tvShow.getTmdbId());
+            ps.setString(2, tvShow.getTitle());
+            ps.setObject(3, tvShow.getFirstAirDate() == null ? null : Date.valueOf(tvShow.getFirstAirDate()), Types.DATE);
+            ps.setString(4, tvShow.getPosterPath());
+            ps.setString(5, tvShow.getBackdropPath());
+            ps.setString(6, tvShow.getOverview());
+            ps.setObject(7, tvShow.getVoteAverage(), Types.DOUBLE);
+        });
+    }
+
+    /**
+     * Adds the titles to a user's watchlist, skipping the ones already on it.
+     *
+     * @param userId the id of the user owning the watchlist
+     * @param items the titles to add
+     * @return per title, 1 if it was added or 0 if it was already on the watchlist
+     */
+    public int[] insertUserMediaIfAbsent(Long userId, List<UserMediaRequestDTO> items) {
+        return JdbcBatches.update(jdbcTemplate, """
+                insert into user_media (id, user_id, media_type, tmdb_id, watched)
+                values (nextval('user_media_seq'), ?, ?, ?, false)
+                on conflict do nothing
+                """, items, (ps, item) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, item.mediaType().name());
+            ps.setLong(3, item.tmdbId());
+        });
+    }
+
+    /**
+     * Removes the titles from a user's watchlist.
+     *
+     * @param userId the id of the user owning the watchlist
+     * @param items the titles to remove
+     * @return per title, 1 if it was removed or 0 if it was not on the watchlist
+     */
+    public int[] deleteUserMedia(Long userId, List<UserMediaRequestDTO> items) {
+        return JdbcBatches.update(jdbcTemplate, """
+                delete from user_media where user_id = ? and media_type = ? and tmdb_id = ?
+                """, items, (ps, item) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, item.mediaType().name());
+            ps.setLong(3, item.tmdbId());
+        });
+    }
+}
@@ -1,17 +1,86 @@
 package com.github.davidduclam.movietracker.repository;
 
+import com.github.davidduclam.movietracker.dto.WatchlistRowDTO;
 import com.github.davidduclam.movietracker.model.MediaType;
 import com.github.davidduclam.movietracker.model.UserMedia;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UserMediaRepository extends JpaRepository<UserMedia, Long> {
 
-    List<UserMedia> findUserMediaByUserId(Long userId);
+    Optional<UserMedia> findByUserIdAndTmdbIdAndMediaType(Long userId, Long tmdbId, MediaType mediaType);
 
-    boolean existsByUserIdAndMediaTypeAndTmdbId(Long user_id, MediaType mediaType, Long tmdbId);
+    /**
+     * Adds a title to a user's watchlist unless it is already there, in a single statement.
+     * Relies on the unique index on user_media(user_id, media_type, tmdb_id), so concurrent
+     * requests cannot create duplicate entries.
+     *
+     * @param userId the id of the user owning the watchlist
+     * @param mediaType the type of the media to add
+     * @param tmdbId the TMDB ID of the media to add
+     * @return 1 if the entry was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into user_media (id, user_id, media_type, tmdb_id, watched)
+            values (nextval('user_media_seq'), :userId, :#{#mediaType.name()}, :tmdbId, false)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("mediaType") MediaType mediaType, @Param("tmdbId") Long tmdbId);
 
-    Optional<UserMedia> findByUserIdAndTmdbIdAndMediaType(Long userId, Long tmdbId, MediaType mediaType);
+    String WATCHLIST_SELECT = """
+            select new com.github.davidduclam.movietracker.dto.WatchlistRowDTO(
+                um.id, um.tmdbId, um.mediaType,
+                coalesce(m.title, t.title),
+                coalesce(m.overview, t.overview),
+                coalesce(m.releaseDate, t.firstAirDate),
+                coalesce(m.posterPath, t.posterPath),
+                coalesce(m.backdropPath, t.backdropPath),
+                coalesce(m.voteAverage, t.voteAverage))
+            from UserMedia um
+            left join Movie m
+                on um.mediaType = com.github.davidduclam.movietracker.model.MediaType.MOVIE and m.tmdbId = um.tmdbId
+            left join TvShow t
+                on um.mediaType = com.github.davidduclam.movietracker.model.MediaType.TV and t.tmdbId = um.tmdbId
+            """;
+
+    /**
+     * Loads a user's whole watchlist in a single statement by joining user_media against
+     * movies and tv_shows, newest entry first.
+     *
+     * @param userId the id of the user owning the watchlist
+     * @return the watchlist rows ordered by user media id descending
+     */
+    @Query(WATCHLIST_SELECT + "where um.user.id = :userId order by um.id desc")
+    List<WatchlistRowDTO> findWatchlistByUserId(@Param("userId") Long userId);
+
+    /**
+     * Loads the first page of a user's watchlist, newest entry first.
+     *
+     * @param userId the id of the user owning the watchlist
+     * @param limit the maximum number of rows to return
+     * @return at most {@code limit} watchlist rows ordered by user media id descending
+     */
+    @Query(WATCHLIST_SELECT + "where um.user.id = :userId order by um.id desc")
+    List<WatchlistRowDTO> findWatchlistPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Loads the page of a user's watchlist that follows the given user media id (keyset pagination),
+     * newest entry first. Backed by the (user_id, id) index so the cost does not grow with the offset.
+     *
+     * @param userId the id of the user owning the watchlist
+     * @param afterId the user media id of the last row of the previous page
+     * @param limit the maximum number of rows to return
+     * @return at most {@code limit} watchlist rows with an id lower than {@code afterId}
+     */
+    @Query(WATCHLIST_SELECT + "where um.user.id = :userId and um.id < :afterId order by um.id desc")
+    List<WatchlistRowDTO> findWatchlistPageByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Limit limit);
 }
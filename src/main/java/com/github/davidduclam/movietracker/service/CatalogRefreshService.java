@@ -0,0 +1,257 @@
+package com.github.davidduclam.movietracker.service;
+
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbChangeDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbChangesResponseDTO;
+import com.github.davidduclam.movietracker.dto.RefreshDueDTO;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import com.github.davidduclam.movietracker.repository.CatalogRefreshRepository;
+import com.github.davidduclam.movietracker.repository.MovieRepository;
+import com.github.davidduclam.movietracker.repository.TvShowRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Keeps the stored movies and TV shows in line with TMDB, so details such as the vote average and
+ * artwork paths do not go stale after a title is first saved.
+ * <p>
+ * Each run reads TMDB's change feed since the previous run and re-fetches only the titles that are
+ * both stored and changed. A title is skipped if it was refreshed less than
+ * {@code catalog.refresh.min-age} ago, which keeps frequently edited titles from being fetched on
+ * every run, and at most {@code catalog.refresh.max-titles-per-run} titles per media type are
+ * refreshed, least recently refreshed first. The rest stay due and are picked up by the next run,
+ * which reads the change feed from the same start date again, so the work is spread over hourly runs
+ * instead of one nightly scan of the whole catalog. Titles whose fetch failed, for example during a
+ * TMDB outage, are retried the same way.
+ * <p>
+ * Details are fetched with at most {@code catalog.refresh.concurrency} TMDB requests in flight,
+ * through the same rate limiter as user traffic, and written back in JDBC batches of
+ * {@code catalog.refresh.batch-size} rows. Titles TMDB no longer knows keep their details but are
+ * stamped as refreshed.
+ */
+@Service
+public class CatalogRefreshService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogRefreshService.class);
+
+    /** TMDB serves the changes of at most 14 days per request, and at most 500 pages. */
+    private static final int MAX_CHANGE_DAYS = 14;
+    private static final int MAX_CHANGE_PAGES = 500;
+    /** Number of TMDb IDs per query when looking up which changed titles are stored. */
+    private static final int ID_LOOKUP_CHUNK_SIZE = 1000;
+    /** Rows that were never refreshed first, then the least recently refreshed. */
+    private static final Comparator<RefreshDueDTO> LEAST_RECENTLY_REFRESHED_FIRST = Comparator
+            .comparing(RefreshDueDTO::lastRefreshedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(RefreshDueDTO::tmdbId);
+
+    private final TmdbClient tmdbClient;
+    private final MovieService movieService;
+    private final TvShowService tvShowService;
+    private final MovieRepository movieRepository;
+    private final TvShowRepository tvShowRepository;
+    private final CatalogRefreshRepository catalogRefreshRepository;
+    private final boolean enabled;
+    private final Duration lookback;
+    private final Duration minAge;
+    private final int maxTitlesPerRun;
+    private final int batchSize;
+    private final int concurrency;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private LocalDate changesSince;
+
+    public CatalogRefreshService(TmdbClient tmdbClient, MovieService movieService, TvShowService tvShowService,
+                                 MovieRepository movieRepository, TvShowRepository tvShowRepository,
+                                 CatalogRefreshRepository catalogRefreshRepository,
+                                 @Value("${catalog.refresh.enabled:true}") boolean enabled,
+                                 @Value("${catalog.refresh.lookback:1d}") Duration lookback,
+                                 @Value("${catalog.refresh.min-age:6h}") Duration minAge,
+                                 @Value("${catalog.refresh.max-titles-per-run:2000}") int maxTitlesPerRun,
+                                 @Value("${catalog.refresh.batch-size:100}") int batchSize,
+                                 @Value("${catalog.refresh.concurrency:4}") int concurrency) {
+        this.tmdbClient = tmdbClient;
+        this.movieService = movieService;
+        this.tvShowService = tvShowService;
+        this.movieRepository = movieRepository;
+        this.tvShowRepository = tvShowRepository;
+        this.catalogRefreshRepository = catalogRefreshRepository;
+        this.enabled = enabled;
+        this.lookback = lookback;
+        this.minAge = minAge;
+        this.maxTitlesPerRun = maxTitlesPerRun;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * The outcome of a refresh run for one media type.
+     *
+     * @param changed the number of titles TMDB reported as changed
+     * @param due the number of changed titles that were stored and due for a refresh, including the ones
+     *            left for the next run
+     * @param refreshed the number of titles whose details were updated
+     * @param notFound the number of titles TMDB no longer knows
+     * @param failed the number of titles that could not be fetched, which stay due
+     * @param backlogged whether more titles were due than the per-run limit, leaving some for the next run
+     */
+    public record RefreshOutcome(int changed, int due, int refreshed, int notFound, int failed, boolean backlogged) {}
+
+    /**
+     * The outcome of a refresh run.
+     *
+     * @param movies the outcome for movies
+     * @param tvShows the outcome for TV shows
+     */
+    public record RefreshSummary(RefreshOutcome movies, RefreshOutcome tvShows) {}
+
+    /**
+     * Runs a refresh at the configured interval, unless {@code catalog.refresh.enabled} is false.
+     */
+    @Scheduled(initialDelayString = "${catalog.refresh.initial-delay:10m}", fixedDelayString = "${catalog.refresh.interval:1h}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Refreshes the stored movies and TV shows that changed on TMDB since the previous run, or within
+     * {@code catalog.refresh.lookback} for the first run after startup. Does nothing if a refresh is
+     * already running.
+     *
+     * @return the outcome of the run, or {@code null} if it was skipped or the change feed could not be read
+     */
+    public RefreshSummary refresh() {
+        if (!runLock.tryLock()) {
+            logger.info("Catalog refresh skipped, the previous run is still going");
+            return null;
+        }
+        try {
+            Instant runStart = Instant.now();
+            LocalDate endDate = LocalDate.ofInstant(runStart, ZoneOffset.UTC);
+            LocalDate startDate = changesSince != null ? changesSince : LocalDate.ofInstant(runStart.minus(lookback), ZoneOffset.UTC);
+            if (startDate.isBefore(endDate.minusDays(MAX_CHANGE_DAYS - 1))) {
+                startDate = endDate.minusDays(MAX_CHANGE_DAYS - 1);
+            }
+            Instant refreshedBefore = runStart.minus(minAge);
+
+            RefreshOutcome movies = refresh(new Catalog<>("movies", tmdbClient::movieChanges,
+                    ids -> movieRepository.findRefreshDue(ids, refreshedBefore),
+                    movieService::refreshMovieEntity, catalogRefreshRepository::updateMovies,
+                    catalogRefreshRepository::markMoviesRefreshed), startDate, endDate);
+            RefreshOutcome tvShows = refresh(new Catalog<>("tv shows", tmdbClient::tvShowChanges,
+                    ids -> tvShowRepository.findRefreshDue(ids, refreshedBefore),
+                    tvShowService::refreshTvShowEntity, catalogRefreshRepository::updateTvShows,
+                    catalogRefreshRepository::markTvShowsRefreshed), startDate, endDate);
+
+            // Reading today's changes again next time is what lets a backlog or a later edit be picked up.
+            // After a backlog or failed fetches the feed is read from the same start date again, so titles
+            // left due are found again even if TMDB does not report them as changed a second time.
+            if (!movies.backlogged() && !tvShows.backlogged() && movies.failed() == 0 && tvShows.failed() == 0) {
+                changesSince = endDate;
+            }
+            logger.info("Catalog refresh from {} to {}: movies {}, tv shows {}", startDate, endDate, movies, tvShows);
+            return new RefreshSummary(movies, tvShows);
+        } catch (TmdbClientException e) {
+            logger.warn("Catalog refresh stopped, the TMDB change feed could not be read: {}", e.getMessage());
+            return null;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private <T> RefreshOutcome refresh(Catalog<T> catalog, LocalDate startDate, LocalDate endDate) {
+        List<Long> changed = new ArrayList<>(changedTmdbIds(catalog, startDate, endDate));
+        // The due rows of every chunk are ordered together, so the per-run limit keeps the least recently
+        // refreshed titles of the whole feed rather than those of the lowest TMDb IDs.
+        List<RefreshDueDTO> dueRows = new ArrayList<>();
+        for (int from = 0; from < changed.size(); from += ID_LOOKUP_CHUNK_SIZE) {
+            dueRows.addAll(catalog.dueQuery().find(changed.subList(from, Math.min(from + ID_LOOKUP_CHUNK_SIZE, changed.size()))));
+        }
+        boolean backlogged = dueRows.size() > maxTitlesPerRun;
+        List<Long> due = dueRows.stream()
+                .sorted(LEAST_RECENTLY_REFRESHED_FIRST)
+                .limit(maxTitlesPerRun)
+                .map(RefreshDueDTO::tmdbId)
+                .toList();
+
+        int refreshed = 0;
+        int notFound = 0;
+        int failed = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            List<T> entities = new ArrayList<>();
+            List<Long> unknownIds = new ArrayList<>();
+            ParallelFetches.fetchAll(batch, concurrency, catalog.fetch()).forEach((tmdbId, fetch) -> {
+                if (fetch.succeeded()) {
+                    entities.add(fetch.result());
+                } else if (isNotFound(fetch.failure())) {
+                    unknownIds.add(tmdbId);
+                } else {
+                    logger.debug("Refreshing {} {} failed", catalog.name(), tmdbId, fetch.failure());
+                }
+            });
+            Instant refreshedAt = Instant.now();
+            catalog.update().accept(entities, refreshedAt);
+            catalog.markRefreshed().accept(unknownIds, refreshedAt);
+            refreshed += entities.size();
+            notFound += unknownIds.size();
+            failed += batch.size() - entities.size() - unknownIds.size();
+        }
+        return new RefreshOutcome(changed.size(), dueRows.size(), refreshed, notFound, failed, backlogged);
+    }
+
+    /**
+     * Reads every page of the change feed, returning the changed TMDb IDs in ascending order.
+     */
+    private TreeSet<Long> changedTmdbIds(Catalog<?> catalog, LocalDate startDate, LocalDate endDate) {
+        TreeSet<Long> tmdbIds = new TreeSet<>();
+        int totalPages = 1;
+        for (int page = 1; page <= Math.min(totalPages, MAX_CHANGE_PAGES); page++) {
+            TmdbChangesResponseDTO response = catalog.changes().fetch(startDate, endDate, page);
+            if (response.results() != null) {
+                response.results().stream().map(TmdbChangeDTO::id).forEach(tmdbIds::add);
+            }
+            totalPages = response.total_pages();
+        }
+        return tmdbIds;
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        return e instanceof TmdbClientException tmdbError && tmdbError.getStatus() != null
+                && tmdbError.getStatus().value() == HttpStatus.NOT_FOUND.value();
+    }
+
+    @FunctionalInterface
+    private interface ChangesPage {
+        TmdbChangesResponseDTO fetch(LocalDate startDate, LocalDate endDate, int page);
+    }
+
+    @FunctionalInterface
+    private interface DueQuery {
+        List<RefreshDueDTO> find(Collection<Long> tmdbIds);
+    }
+
+    /**
+     * How to refresh one media type: where its changes come from, how to find its due rows,
+     * fetch a title and write the results.
+     */
+    private record Catalog<T>(String name, ChangesPage changes, DueQuery dueQuery, Function<Long, T> fetch,
+                              BiConsumer<List<T>, Instant> update, BiConsumer<List<Long>, Instant> markRefreshed) {}
+}
@@ -1,28 +1,44 @@
 package com.github.davidduclam.movietracker.service;
 
+import com.github.davidduclam.movietracker.cache.RefreshAheadCache;
 import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
 import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbVideoDTO;
+import com.github.davidduclam.movietracker.dto.DetailsLookupDTO;
 import com.github.davidduclam.movietracker.dto.UserMediaRequestDTO;
 import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
 import com.github.davidduclam.movietracker.dto.MovieResponseDTO;
 import com.github.davidduclam.movietracker.dto.TrailerDTO;
 import com.github.davidduclam.movietracker.error.MediaNotFoundException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import com.github.davidduclam.movietracker.model.DetailsSource;
 import com.github.davidduclam.movietracker.model.Movie;
 import com.github.davidduclam.movietracker.repository.MovieRepository;
+import com.github.davidduclam.movietracker.timing.ServerTimings;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class MovieService {
     private final MovieRepository movieRepository;
     private final TmdbClient tmdbClient;
+    private final RefreshAheadCache.Entry<List<MovieResponseDTO>> popularMovies;
+    private final RefreshAheadCache.Entry<List<MovieResponseDTO>> topRatedMovies;
+    private final RefreshAheadCache.Entry<List<MovieResponseDTO>> upcomingMovies;
 
-    public MovieService(MovieRepository movieRepository, TmdbClient tmdbClient) {
+    public MovieService(MovieRepository movieRepository, TmdbClient tmdbClient, RefreshAheadCache refreshAheadCache) {
         this.movieRepository = movieRepository;
         this.tmdbClient = tmdbClient;
+        this.popularMovies = refreshAheadCache.register("popular movies",
+                () -> tmdbClient.popularMovies().stream().map(ResponseMapper::toMovieResponse).toList());
+        this.topRatedMovies = refreshAheadCache.register("top-rated movies",
+                () -> tmdbClient.topRatedMovies().stream().map(ResponseMapper::toMovieResponse).toList());
+        this.upcomingMovies = refreshAheadCache.register("upcoming movies",
+                () -> tmdbClient.upcomingMovies().stream().map(ResponseMapper::toMovieResponse).toList());
     }
 
     /**
@@ -47,20 +63,51 @@ public class MovieService {
 
     /**
      * Saves a movie to the database if it does not already exist.
-     * This method checks if a movie with the provided TMDb ID is already present in the repository.
-     * If not, it fetches the movie details from TMDb, converts the details to a Movie entity,
-     * and saves it to the database.
+     * The TMDb details are only fetched when the movie is not stored yet, and the insert itself
+     * is a single upsert, so concurrent requests for the same movie cannot create duplicates.
      *
      * @param userMediaRequestDTO the data transfer object containing information about the movie to be added,
      *                               including the TMDb ID required to fetch the movie details.
      */
     public void saveMovieToDb(UserMediaRequestDTO userMediaRequestDTO) {
-        if (movieRepository.findByTmdbId(userMediaRequestDTO.tmdbId()).isEmpty()) {
+        if (!movieRepository.existsByTmdbId(userMediaRequestDTO.tmdbId())) {
             Movie movie = convertMovieResponseDtoToMovie(fetchMovieDetails(userMediaRequestDTO.tmdbId()));
-            movieRepository.save(movie);
+            movieRepository.insertIfAbsent(movie);
         }
     }
 
+    /**
+     * Returns which of the given TMDb IDs already have a stored movie, in a single query.
+     *
+     * @param tmdbIds the TMDb IDs to look up
+     * @return the subset of {@code tmdbIds} that are stored
+     */
+    public Set<Long> findStoredTmdbIds(Collection<Long> tmdbIds) {
+        return tmdbIds.isEmpty() ? Set.of() : movieRepository.findStoredTmdbIds(tmdbIds);
+    }
+
+    /**
+     * Fetches a movie from TMDb and converts it into a {@link Movie} entity ready to be stored,
+     * without writing it. Used by bulk watchlist writes, which store all fetched titles in one batch.
+     *
+     * @param tmdbId the ID of the movie from TMDb
+     * @return a new, unsaved {@link Movie} entity
+     */
+    public Movie fetchMovieEntity(Long tmdbId) {
+        return convertMovieResponseDtoToMovie(fetchMovieDetails(tmdbId));
+    }
+
+    /**
+     * Fetches the current details of a movie from TMDb, bypassing the details cache, and converts
+     * them into a {@link Movie} entity without writing it. Used by the background catalog refresh.
+     *
+     * @param tmdbId the ID of the movie from TMDb
+     * @return a new, unsaved {@link Movie} entity with the movie's current details
+     */
+    public Movie refreshMovieEntity(Long tmdbId) {
+        return convertMovieResponseDtoToMovie(ResponseMapper.toMovieResponse(tmdbClient.refreshMovieDetails(tmdbId)));
+    }
+
     /**
      * Retrieves movie details from the database using the provided TMDb ID.
      * If the movie is found, it is mapped to a MovieResponseDTO object.
@@ -74,13 +121,35 @@ public class MovieService {
      */
     public MovieResponseDTO getMovieFromDb(Long tmdbId) {
         return movieRepository.findByTmdbId(tmdbId)
-                .map(movie -> new MovieResponseDTO(
-                        movie.getTmdbId(), movie.getTitle(), movie.getOverview(),
-                        movie.getReleaseDate(), movie.getPosterPath(),
-                        movie.getBackdropPath(), movie.getVoteAverage(), null))
+                .map(ResponseMapper::toMovieResponse)
                 .orElseThrow(MediaNotFoundException::new);
     }
 
+    /**
+     * Looks up movie details for the details endpoint. They come from TMDb (through the details cache)
+     * when it is reachable. While TMDb is unavailable or the circuit breaker is open, the last details
+     * fetched from TMDb are served instead, or failing that the stored movies row. The result records
+     * which of these it came from so the caller can flag stale data.
+     *
+     * @param tmdbId the ID of the movie from TMDb
+     * @return the movie details and their source
+     * @throws TmdbClientException if TMDb fails and no stale copy of the movie is available
+     */
+    public DetailsLookupDTO<MovieResponseDTO> lookupMovieDetails(Long tmdbId) {
+        try {
+            return new DetailsLookupDTO<>(fetchMovieDetails(tmdbId), DetailsSource.TMDB);
+        } catch (TmdbClientException e) {
+            if (!e.isUpstreamUnavailable()) {
+                throw e;
+            }
+            return tmdbClient.lastKnownMovieDetails(tmdbId)
+                    .map(details -> new DetailsLookupDTO<>(ResponseMapper.toMovieResponse(details), DetailsSource.CACHE))
+                    .or(() -> movieRepository.findByTmdbId(tmdbId)
+                            .map(stored -> new DetailsLookupDTO<>(ResponseMapper.toMovieResponse(stored), DetailsSource.DATABASE)))
+                    .orElseThrow(() -> e);
+        }
+    }
+
     /**
      * Fetches movie details from TMDb using the provided TMDb ID and returns a MovieResponseDTO object
      * containing the movie's information.
@@ -91,58 +160,62 @@ public class MovieService {
      */
     public MovieResponseDTO fetchMovieDetails(Long tmdbId) {
         TmdbMovieDTO tmdbMovieDTO = tmdbClient.fetchMovieDetails(tmdbId);
-        return toMovieResponse(tmdbMovieDTO);
+        return ServerTimings.time(ServerTimings.Category.MAPPING, () -> ResponseMapper.toMovieResponse(tmdbMovieDTO));
     }
 
     /**
      * Retrieves a list of popular movies from TMDb and converts the results
      * into a list of MovieResponseDTO objects.
+     * The list is kept in memory and refreshed in the background, so this call does not wait on TMDb.
      *
      * @return a list of MovieResponseDTO objects representing the popular movies,
      *         including their ID, title, release date, poster path, backdrop path,
      *         overview, and vote average.
      */
     public List<MovieResponseDTO> popularMovies() {
-        List<TmdbMovieDTO> tmdbMovieDTOList = tmdbClient.popularMovies();
-        return tmdbMovieDTOList.stream().map(this::toMovieResponse).toList();
+        return popularMovies.get();
     }
 
     /**
      * Retrieves a list of top-rated movies from TMDb and converts the results
      * into a list of MovieResponseDTO objects.
+     * The list is kept in memory and refreshed in the background, so this call does not wait on TMDb.
      *
      * @return a list of MovieResponseDTO objects representing the top-rated movies,
      *         including their ID, title, release date, poster path, backdrop path,
      *         overview, and vote average.
      */
     public List<MovieResponseDTO> topRatedMovies() {
-        List<TmdbMovieDTO> tmdbMovieDTOList = tmdbClient.topRatedMovies();
-        return tmdbMovieDTOList.stream().map(this::toMovieResponse).toList();
+        return topRatedMovies.get();
     }
 
     /**
      * Fetches a list of upcoming movies using the TmdbClient and converts the results
      * into a list of MovieResponseDTO objects.
+     * The list is kept in memory and refreshed in the background, so this call does not wait on TMDb.
      *
      * @return a list of MovieResponseDTO objects containing details of upcoming movies,
      *         such as their ID, title, release date, poster path, backdrop path,
      *         overview, and vote average
      */
     public List<MovieResponseDTO> upcomingMovies() {
-        List<TmdbMovieDTO> tmdbMovieDTOList = tmdbClient.upcomingMovies();
-        return tmdbMovieDTOList.stream().map(this::toMovieResponse).toList();
+        return upcomingMovies.get();
     }
 
     /**
      * Fetches the movie trailer for the given TMDB (The Movie Database) movie ID.
+     * The trailer is taken from the videos appended to the movie details, which are served from
+     * the details cache, so this does not cost a separate TMDB request.
      *
      * @param tmdbId the unique identifier of the movie in TMDB whose trailer is to be fetched
      * @return A {@link TrailerDTO} object representing the movie trailer
      * @throws MediaNotFoundException if no official trailer is found for the given movie.
      */
     public TrailerDTO getMovieTrailer(Long tmdbId) {
-        List<TmdbVideoDTO> tmdbVideoDTOList = tmdbClient.fetchMovieTrailers(tmdbId);
-        Optional<TrailerDTO> trailerDTO = tmdbVideoDTOList.stream().filter(f -> f.type().equals("Trailer") && f.official().equals(true)).map(this::toTrailer).findFirst();
+        TmdbMovieDTO details = tmdbClient.fetchMovieDetails(tmdbId);
+        List<TmdbVideoDTO> tmdbVideoDTOList = details.videos() == null || details.videos().results() == null
+                ? List.of() : details.videos().results();
+        Optional<TrailerDTO> trailerDTO = tmdbVideoDTOList.stream().filter(f -> "Trailer".equals(f.type()) && Boolean.TRUE.equals(f.official())).map(this::toTrailer).findFirst();
         return trailerDTO.orElseThrow(MediaNotFoundException::new);
     }
 
@@ -159,30 +232,4 @@ public class MovieService {
                 tmdbVideoDTO.site()
         );
     }
-
-    /**
-     * Converts a {@link TmdbMovieDTO} object into a {@link MovieResponseDTO} object.
-     *
-     * @param tmdbMovieDTO the {@link TmdbMovieDTO} object containing movie information
-     *                     retrieved from the TMDb API.
-     * @return a {@link MovieResponseDTO} object containing the transformed movie
-     *         information, including basic details and the trailer key if available.
-     */
-    private MovieResponseDTO toMovieResponse(TmdbMovieDTO tmdbMovieDTO) {
-        String trailerKey = tmdbMovieDTO.videos() == null ? null :
-                tmdbMovieDTO.videos().results().stream()
-                        .filter(v -> v.type().equals("Trailer") && v.official().equals(true) && "YouTube".equals(v.site()))
-                        .map(TmdbVideoDTO::key)
-                        .findFirst()
-                        .orElse(null);
-        return new MovieResponseDTO(
-                tmdbMovieDTO.id(),
-                tmdbMovieDTO.title(),
-                tmdbMovieDTO.overview(),
-                tmdbMovieDTO.release_date(),
-                tmdbMovieDTO.poster_path(),
-                tmdbMovieDTO.backdrop_path(),
-                tmdbMovieDTO.vote_average(),
-                trailerKey);
-    }
 }
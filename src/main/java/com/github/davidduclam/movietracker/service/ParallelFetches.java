@@ -0,0 +1,67 @@
+package com.github.davidduclam.movietracker.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Bounded fan-out of TMDB fetches: one virtual thread per key, with at most a given number of fetches
+ * in flight, waiting for all of them before returning. Used by the batch watchlist hydration and the
+ * background catalog refresh.
+ */
+final class ParallelFetches {
+
+    private ParallelFetches() {
+    }
+
+    /**
+     * The outcome of one fetch: its result, or the exception it failed with.
+     *
+     * @param result the fetched value, or null if the fetch failed
+     * @param failure the exception the fetch failed with, or null if it succeeded
+     */
+    record Outcome<V>(V result, Throwable failure) {
+
+        boolean succeeded() {
+            return failure == null;
+        }
+    }
+
+    /**
+     * Fetches every key in parallel and waits for all of them.
+     *
+     * @param keys the keys to fetch, each fetched once
+     * @param concurrency the maximum number of fetches in flight
+     * @param fetch the fetch of one key
+     * @return the outcome of every fetch, in the order of {@code keys}
+     */
+    static <K, V> Map<K, Outcome<V>> fetchAll(Collection<K> keys, int concurrency, Function<K, V> fetch) {
+        Semaphore permits = new Semaphore(concurrency);
+        Map<K, Future<V>> fetches = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (K key : keys) {
+                fetches.put(key, executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return fetch.apply(key);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        Map<K, Outcome<V>> outcomes = new LinkedHashMap<>();
+        fetches.forEach((key, future) -> outcomes.put(key, switch (future.state()) {
+            case SUCCESS -> new Outcome<>(future.resultNow(), null);
+            case FAILED -> new Outcome<>(null, future.exceptionNow());
+            default -> new Outcome<>(null, new InterruptedException("Fetching from TMDb was interrupted"));
+        }));
+        return outcomes;
+    }
+}
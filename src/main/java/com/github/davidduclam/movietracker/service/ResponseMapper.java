@@ -0,0 +1,168 @@
+package com.github.davidduclam.movietracker.service;
+
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbIgnoredSearchResultDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieResultDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbSearchResultDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbTvShowDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbTvShowResultDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbVideoDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbVideoResultsDTO;
+import com.github.davidduclam.movietracker.dto.MovieResponseDTO;
+import com.github.davidduclam.movietracker.dto.MovieSearchResultDTO;
+import com.github.davidduclam.movietracker.dto.SearchResultDTO;
+import com.github.davidduclam.movietracker.dto.TvShowResponseDTO;
+import com.github.davidduclam.movietracker.dto.TvShowSearchResultDTO;
+import com.github.davidduclam.movietracker.model.Movie;
+import com.github.davidduclam.movietracker.model.TvShow;
+
+import java.time.LocalDate;
+
+/**
+ * Maps TMDB responses and stored entities to the responses of the API, for {@link MovieService},
+ * {@link TvShowService} and {@link SearchService}.
+ */
+final class ResponseMapper {
+
+    private ResponseMapper() {
+    }
+
+    /**
+     * Converts a {@link TmdbMovieDTO} object into a {@link MovieResponseDTO} object.
+     *
+     * @param tmdbMovieDTO the {@link TmdbMovieDTO} object containing movie information
+     *                     retrieved from the TMDb API.
+     * @return a {@link MovieResponseDTO} object containing the transformed movie
+     *         information, including basic details and the trailer key if available.
+     */
+    static MovieResponseDTO toMovieResponse(TmdbMovieDTO tmdbMovieDTO) {
+        return new MovieResponseDTO(
+                tmdbMovieDTO.id(),
+                tmdbMovieDTO.title(),
+                tmdbMovieDTO.overview(),
+                tmdbMovieDTO.release_date(),
+                tmdbMovieDTO.poster_path(),
+                tmdbMovieDTO.backdrop_path(),
+                tmdbMovieDTO.vote_average(),
+                trailerKey(tmdbMovieDTO.videos()));
+    }
+
+    /**
+     * Converts a stored {@link Movie} entity into a {@link MovieResponseDTO}. The entity does not
+     * keep video data, so the trailer key is left empty.
+     *
+     * @param movie the stored movie
+     * @return a {@link MovieResponseDTO} with the stored details
+     */
+    static MovieResponseDTO toMovieResponse(Movie movie) {
+        return new MovieResponseDTO(
+                movie.getTmdbId(), movie.getTitle(), movie.getOverview(),
+                movie.getReleaseDate(), movie.getPosterPath(),
+                movie.getBackdropPath(), movie.getVoteAverage(), null);
+    }
+
+    /**
+     * Converts a TmdbTvShowDTO object into a TvShowResponseDTO object.
+     *
+     * @param tmdbTvShowDTO the input DTO containing data from the TMDB API about a TV show
+     * @return a TvShowResponseDTO containing the mapped data, including the trailer key if available
+     */
+    static TvShowResponseDTO toTvShowResponse(TmdbTvShowDTO tmdbTvShowDTO) {
+        return new TvShowResponseDTO(
+                tmdbTvShowDTO.id(),
+                tmdbTvShowDTO.name(),
+                tmdbTvShowDTO.overview(),
+                tmdbTvShowDTO.first_air_date(),
+                tmdbTvShowDTO.poster_path(),
+                tmdbTvShowDTO.backdrop_path(),
+                tmdbTvShowDTO.vote_average(),
+                trailerKey(tmdbTvShowDTO.videos()));
+    }
+
+    /**
+     * Converts a stored {@link TvShow} entity into a {@link TvShowResponseDTO}. The entity does not
+     * keep video data, so the trailer key is left empty.
+     *
+     * @param tvShow the stored TV show
+     * @return a {@link TvShowResponseDTO} with the stored details
+     */
+    static TvShowResponseDTO toTvShowResponse(TvShow tvShow) {
+        return new TvShowResponseDTO(
+                tvShow.getTmdbId(), tvShow.getTitle(), tvShow.getOverview(),
+                tvShow.getFirstAirDate(), tvShow.getPosterPath(),
+                tvShow.getBackdropPath(), tvShow.getVoteAverage(), null);
+    }
+
+    /**
+     * Converts a {@link TmdbSearchResultDTO} instance into a corresponding {@link SearchResultDTO}.
+     *
+     * @param result The {@link TmdbSearchResultDTO} instance to convert. It can be one of the following types:
+     *               {@link TmdbMovieResultDTO} for movies, {@link TmdbTvShowResultDTO} for TV shows,
+     *               or {@link TmdbIgnoredSearchResultDTO} for unsupported types.
+     * @return A {@link SearchResultDTO} instance. The returned object is a {@link MovieSearchResultDTO} if the input is
+     *         a {@link TmdbMovieResultDTO}, or a {@link TvShowSearchResultDTO} if the input is a {@link TmdbTvShowResultDTO}.
+     * @throws IllegalStateException If the input is an unsupported type, such as {@link TmdbIgnoredSearchResultDTO}.
+     */
+    static SearchResultDTO toSearchResult(TmdbSearchResultDTO result) {
+        return switch (result) {
+            case TmdbMovieResultDTO m -> toMovieSearchResult(m);
+            case TmdbTvShowResultDTO t -> toTvShowSearchResult(t);
+            case TmdbIgnoredSearchResultDTO ignored -> throw new IllegalStateException("Unexpected search result type");
+        };
+    }
+
+    /**
+     * Converts a {@link TmdbMovieResultDTO} instance into a {@link MovieSearchResultDTO} instance.
+     *
+     * @param m The {@link TmdbMovieResultDTO} instance representing the movie details retrieved from the TMDb API.
+     *          This includes the movie's ID, media type, title, release date (as a string), poster path, and vote average.
+     * @return A {@link MovieSearchResultDTO} instance that contains the movie's ID, media type,
+     *         title, release date (as a {@link LocalDate}), poster path, and vote average.
+     *         The release date will be parsed as a {@link LocalDate}, or set to {@code null} if it is blank or not provided.
+     */
+    private static MovieSearchResultDTO toMovieSearchResult(TmdbMovieResultDTO m) {
+        return new MovieSearchResultDTO(
+                m.id(),
+                m.mediaType(),
+                m.title(),
+                m.releaseDate() != null && !m.releaseDate().isBlank() ? LocalDate.parse(m.releaseDate()) : null,
+                m.posterPath(),
+                m.voteAverage());
+    }
+
+    /**
+     * Converts a {@link TmdbTvShowResultDTO} instance into a {@link TvShowSearchResultDTO} instance.
+     *
+     * @param t The {@link TmdbTvShowResultDTO} instance representing the TV show details retrieved from the TMDb API.
+     *          This includes the show's ID, media type, name, release date (as a string), poster path, and vote average.
+     * @return A {@link TvShowSearchResultDTO} instance that contains the TV show's ID, media type, name,
+     *         release date (as a {@link LocalDate}), poster path, and vote average.
+     *         The release date will be parsed as a {@link LocalDate}, or set to {@code null} if it is blank or not provided.
+     */
+    private static TvShowSearchResultDTO toTvShowSearchResult(TmdbTvShowResultDTO t) {
+        return new TvShowSearchResultDTO(
+                t.id(),
+                t.mediaType(),
+                t.name(),
+                t.releaseDate() != null && !t.releaseDate().isBlank() ? LocalDate.parse(t.releaseDate()) : null,
+                t.posterPath(),
+                t.voteAverage());
+    }
+
+    /**
+     * Picks the key of the first official YouTube trailer.
+     *
+     * @param videos the videos appended to a TMDB details response, possibly {@code null}
+     * @return the trailer's YouTube key, or {@code null} if there is none
+     */
+    private static String trailerKey(TmdbVideoResultsDTO videos) {
+        if (videos == null || videos.results() == null) {
+            return null;
+        }
+        return videos.results().stream()
+                .filter(v -> "Trailer".equals(v.type()) && Boolean.TRUE.equals(v.official()) && "YouTube".equals(v.site()))
+                .map(TmdbVideoDTO::key)
+                .findFirst()
+                .orElse(null);
+    }
+}
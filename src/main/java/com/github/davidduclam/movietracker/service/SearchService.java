@@ -1,90 +1,120 @@
 package com.github.davidduclam.movietracker.service;
 
+import com.github.davidduclam.movietracker.cache.SearchResultCache;
 import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
-import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbIgnoredSearchResultDTO;
-import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieResultDTO;
 import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbSearchResultDTO;
-import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbTvShowResultDTO;
 import com.github.davidduclam.movietracker.dto.MovieSearchResultDTO;
 import com.github.davidduclam.movietracker.dto.SearchResultDTO;
 import com.github.davidduclam.movietracker.dto.TvShowSearchResultDTO;
+import com.github.davidduclam.movietracker.model.SearchMode;
+import com.github.davidduclam.movietracker.repository.MovieRepository;
+import com.github.davidduclam.movietracker.repository.TvShowRepository;
+import com.github.davidduclam.movietracker.timing.ServerTimings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class SearchService {
+    /** Language the stored movies and TV shows were fetched in. */
+    private static final String CATALOG_LANGUAGE = "en-US";
+
     private final TmdbClient tmdbClient;
+    private final SearchResultCache searchResultCache;
+    private final MovieRepository movieRepository;
+    private final TvShowRepository tvShowRepository;
+    private final SearchMode defaultMode;
+    private final int localMinResults;
+    private final int localMaxResults;
 
-    public SearchService(TmdbClient tmdbClient) {
+    public SearchService(TmdbClient tmdbClient,
+                         SearchResultCache searchResultCache,
+                         MovieRepository movieRepository,
+                         TvShowRepository tvShowRepository,
+                         @Value("${search.default-mode:REMOTE}") SearchMode defaultMode,
+                         @Value("${search.local.min-results:5}") int localMinResults,
+                         @Value("${search.local.max-results:20}") int localMaxResults) {
         this.tmdbClient = tmdbClient;
+        this.searchResultCache = searchResultCache;
+        this.movieRepository = movieRepository;
+        this.tvShowRepository = tvShowRepository;
+        this.defaultMode = defaultMode;
+        this.localMinResults = localMinResults;
+        this.localMaxResults = localMaxResults;
     }
 
     /**
-     * Performs a multi-search query for movies and TV shows using the provided search string.
+     * Performs a multi-search query using the given search mode.
+     * In {@link SearchMode#LOCAL_FIRST} mode the stored movies and TV shows are searched first,
+     * and TMDb is only queried when the local catalog has fewer than the configured minimum of results
+     * or when the requested language differs from the one the catalog was stored in.
      *
      * @param query The search query string used to find matching movies or TV shows.
+     * @param language The TMDb language of the results, such as {@code en-US}.
+     * @param mode The search mode, or {@code null} to use the configured default mode.
      * @return A list of {@code SearchResultDTO} objects, which contains either movie or TV show search results.
      */
-    public List<SearchResultDTO> searchMulti(String query) {
-        List<TmdbSearchResultDTO> tmdbSearchResultDTOList = tmdbClient.searchMulti(query);
-        return tmdbSearchResultDTOList.stream().map(this::toSearchResult).toList();
+    public List<SearchResultDTO> searchMulti(String query, String language, SearchMode mode) {
+        SearchMode effectiveMode = mode == null ? defaultMode : mode;
+        if (effectiveMode == SearchMode.LOCAL_FIRST && CATALOG_LANGUAGE.equals(language)) {
+            List<SearchResultDTO> localResults = searchLocalCatalog(query);
+            if (localResults.size() >= localMinResults) {
+                return localResults;
+            }
+        }
+        return searchMulti(query, language);
     }
 
     /**
-     * Converts a {@link TmdbSearchResultDTO} instance into a corresponding {@link SearchResultDTO}.
+     * Performs a multi-search query for movies and TV shows using the provided search string.
+     * Mapped results are cached per normalized query and language, so repeated queries
+     * neither call TMDb nor repeat the mapping.
      *
-     * @param result The {@link TmdbSearchResultDTO} instance to convert. It can be one of the following types:
-     *               {@link TmdbMovieResultDTO} for movies, {@link TmdbTvShowResultDTO} for TV shows,
-     *               or {@link TmdbIgnoredSearchResultDTO} for unsupported types.
-     * @return A {@link SearchResultDTO} instance. The returned object is a {@link MovieSearchResultDTO} if the input is
-     *         a {@link TmdbMovieResultDTO}, or a {@link TvShowSearchResultDTO} if the input is a {@link TmdbTvShowResultDTO}.
-     * @throws IllegalStateException If the input is an unsupported type, such as {@link TmdbIgnoredSearchResultDTO}.
+     * @param query The search query string used to find matching movies or TV shows.
+     * @param language The TMDb language of the results, such as {@code en-US}.
+     * @return A list of {@code SearchResultDTO} objects, which contains either movie or TV show search results.
      */
-    private SearchResultDTO toSearchResult(TmdbSearchResultDTO result) {
-        return switch (result) {
-            case TmdbMovieResultDTO m -> toMovieSearchResult(m);
-            case TmdbTvShowResultDTO t -> toTvShowSearchResult(t);
-            case TmdbIgnoredSearchResultDTO ignored -> throw new IllegalStateException("Unexpected search result type");
-        };
+    public List<SearchResultDTO> searchMulti(String query, String language) {
+        return searchResultCache.get(query, language, normalizedQuery -> {
+            List<TmdbSearchResultDTO> tmdbSearchResultDTOList = tmdbClient.searchMulti(normalizedQuery, language);
+            return ServerTimings.time(ServerTimings.Category.MAPPING,
+                    () -> tmdbSearchResultDTOList.stream().map(ResponseMapper::toSearchResult).toList());
+        });
     }
 
     /**
-     * Converts a {@link TmdbMovieResultDTO} instance into a {@link MovieSearchResultDTO} instance.
+     * Searches the stored movies and TV shows by title, best rated first.
      *
-     * @param m The {@link TmdbMovieResultDTO} instance representing the movie details retrieved from the TMDb API.
-     *          This includes the movie's ID, media type, title, release date (as a string), poster path, and vote average.
-     * @return A {@link MovieSearchResultDTO} instance that contains the movie's ID, media type,
-     *         title, release date (as a {@link LocalDate}), poster path, and vote average.
-     *         The release date will be parsed as a {@link LocalDate}, or set to {@code null} if it is blank or not provided.
+     * @param query The search query string used to find matching movies or TV shows.
+     * @return At most the configured maximum of local search results.
      */
-    private MovieSearchResultDTO toMovieSearchResult(TmdbMovieResultDTO m) {
-        return new MovieSearchResultDTO(
-                m.id(),
-                m.mediaType(),
-                m.title(),
-                m.releaseDate() != null && !m.releaseDate().isBlank() ? LocalDate.parse(m.releaseDate()) : null,
-                m.posterPath(),
-                m.voteAverage());
+    private List<SearchResultDTO> searchLocalCatalog(String query) {
+        String pattern = escapeLikePattern(SearchResultCache.normalize(query));
+        if (pattern.isEmpty()) {
+            return List.of();
+        }
+
+        Limit limit = Limit.of(localMaxResults);
+        return Stream.<SearchResultDTO>concat(
+                        movieRepository.searchByTitle(pattern, limit).stream(),
+                        tvShowRepository.searchByTitle(pattern, limit).stream())
+                .sorted(Comparator.comparing(SearchService::voteAverage, Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(localMaxResults)
+                .toList();
     }
 
-    /**
-     * Converts a {@link TmdbTvShowResultDTO} instance into a {@link TvShowSearchResultDTO} instance.
-     *
-     * @param t The {@link TmdbTvShowResultDTO} instance representing the TV show details retrieved from the TMDb API.
-     *          This includes the show's ID, media type, name, release date (as a string), poster path, and vote average.
-     * @return A {@link TvShowSearchResultDTO} instance that contains the TV show's ID, media type, name,
-     *         release date (as a {@link LocalDate}), poster path, and vote average.
-     *         The release date will be parsed as a {@link LocalDate}, or set to {@code null} if it is blank or not provided.
-     */
-    private TvShowSearchResultDTO toTvShowSearchResult(TmdbTvShowResultDTO t) {
-        return new TvShowSearchResultDTO(
-                t.id(),
-                t.mediaType(),
-                t.name(),
-                t.releaseDate() != null && !t.releaseDate().isBlank() ? LocalDate.parse(t.releaseDate()) : null,
-                t.posterPath(),
-                t.voteAverage());
+    private static Double voteAverage(SearchResultDTO result) {
+        return switch (result) {
+            case MovieSearchResultDTO m -> m.voteAverage();
+            case TvShowSearchResultDTO t -> t.voteAverage();
+        };
+    }
+
+    private static String escapeLikePattern(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
-}
\ No newline at end of file
+}
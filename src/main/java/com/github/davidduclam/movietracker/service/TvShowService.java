@@ -1,27 +1,40 @@
 package com.github.davidduclam.movietracker.service;
 
+import com.github.davidduclam.movietracker.cache.RefreshAheadCache;
 import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
 import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbVideoDTO;
+import com.github.davidduclam.movietracker.dto.DetailsLookupDTO;
 import com.github.davidduclam.movietracker.dto.UserMediaRequestDTO;
 import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbTvShowDTO;
 import com.github.davidduclam.movietracker.dto.TrailerDTO;
 import com.github.davidduclam.movietracker.dto.TvShowResponseDTO;
 import com.github.davidduclam.movietracker.error.MediaNotFoundException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import com.github.davidduclam.movietracker.model.DetailsSource;
 import com.github.davidduclam.movietracker.model.TvShow;
 import com.github.davidduclam.movietracker.repository.TvShowRepository;
+import com.github.davidduclam.movietracker.timing.ServerTimings;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class TvShowService {
     private final TvShowRepository tvShowRepository;
     private final TmdbClient tmdbClient;
+    private final RefreshAheadCache.Entry<List<TvShowResponseDTO>> popularTvShows;
+    private final RefreshAheadCache.Entry<List<TvShowResponseDTO>> topRatedTvShows;
 
-    public TvShowService(TvShowRepository tvShowRepository, TmdbClient tmdbClient) {
+    public TvShowService(TvShowRepository tvShowRepository, TmdbClient tmdbClient, RefreshAheadCache refreshAheadCache) {
         this.tvShowRepository = tvShowRepository;
         this.tmdbClient = tmdbClient;
+        this.popularTvShows = refreshAheadCache.register("popular tv shows",
+                () -> tmdbClient.popularTvShows().stream().map(ResponseMapper::toTvShowResponse).toList());
+        this.topRatedTvShows = refreshAheadCache.register("top rated tv shows",
+                () -> tmdbClient.topRatedTvShows().stream().map(ResponseMapper::toTvShowResponse).toList());
     }
 
     /**
@@ -52,18 +65,51 @@ public class TvShowService {
      * This method checks if a TV show with the given TMDB ID exists
      * in the database. If it does not, it fetches the TV show details
      * from an external API, converts the fetched data into a {@code TvShow}
-     * entity, and saves it to the repository.
+     * entity, and inserts it with a single upsert so concurrent requests
+     * for the same TV show cannot create duplicates.
      *
      * @param userMediaRequestDTO the DTO containing the TMDB ID of the
      *                                TV show to be saved
      */
     public void saveTvShowToDb(UserMediaRequestDTO userMediaRequestDTO) {
-        if (tvShowRepository.findByTmdbId(userMediaRequestDTO.tmdbId()).isEmpty()) {
+        if (!tvShowRepository.existsByTmdbId(userMediaRequestDTO.tmdbId())) {
             TvShow tvShow = convertTvShowResponseDtoToTvShow(fetchTvShowDetails(userMediaRequestDTO.tmdbId()));
-            tvShowRepository.save(tvShow);
+            tvShowRepository.insertIfAbsent(tvShow);
         }
     }
 
+    /**
+     * Returns which of the given TMDb IDs already have a stored TV show, in a single query.
+     *
+     * @param tmdbIds the TMDb IDs to look up
+     * @return the subset of {@code tmdbIds} that are stored
+     */
+    public Set<Long> findStoredTmdbIds(Collection<Long> tmdbIds) {
+        return tmdbIds.isEmpty() ? Set.of() : tvShowRepository.findStoredTmdbIds(tmdbIds);
+    }
+
+    /**
+     * Fetches a TV show from TMDb and converts it into a {@link TvShow} entity ready to be stored,
+     * without writing it. Used by bulk watchlist writes, which store all fetched titles in one batch.
+     *
+     * @param tmdbId the ID of the TV show from TMDb
+     * @return a new, unsaved {@link TvShow} entity
+     */
+    public TvShow fetchTvShowEntity(Long tmdbId) {
+        return convertTvShowResponseDtoToTvShow(fetchTvShowDetails(tmdbId));
+    }
+
+    /**
+     * Fetches the current details of a TV show from TMDb, bypassing the details cache, and converts
+     * them into a {@link TvShow} entity without writing it. Used by the background catalog refresh.
+     *
+     * @param tmdbId the ID of the TV show from TMDb
+     * @return a new, unsaved {@link TvShow} entity with the TV show's current details
+     */
+    public TvShow refreshTvShowEntity(Long tmdbId) {
+        return convertTvShowResponseDtoToTvShow(ResponseMapper.toTvShowResponse(tmdbClient.refreshTvShowDetails(tmdbId)));
+    }
+
     /**
      * Retrieves a TV show from the database based on the provided TMDB ID.
      *
@@ -77,13 +123,35 @@ public class TvShowService {
      */
     public TvShowResponseDTO getTvShowFromDb(Long tmdbId) {
         return tvShowRepository.findByTmdbId(tmdbId)
-                .map(tvShow -> new TvShowResponseDTO(
-                        tvShow.getTmdbId(), tvShow.getTitle(), tvShow.getOverview(),
-                        tvShow.getFirstAirDate(), tvShow.getPosterPath(),
-                        tvShow.getBackdropPath(), tvShow.getVoteAverage(), null))
+                .map(ResponseMapper::toTvShowResponse)
                 .orElseThrow(MediaNotFoundException::new);
     }
 
+    /**
+     * Looks up TV show details for the details endpoint. They come from TMDb (through the details cache)
+     * when it is reachable. While TMDb is unavailable or the circuit breaker is open, the last details
+     * fetched from TMDb are served instead, or failing that the stored tv_shows row. The result records
+     * which of these it came from so the caller can flag stale data.
+     *
+     * @param tmdbId the ID of the TV show from TMDb
+     * @return the TV show details and their source
+     * @throws TmdbClientException if TMDb fails and no stale copy of the TV show is available
+     */
+    public DetailsLookupDTO<TvShowResponseDTO> lookupTvShowDetails(Long tmdbId) {
+        try {
+            return new DetailsLookupDTO<>(fetchTvShowDetails(tmdbId), DetailsSource.TMDB);
+        } catch (TmdbClientException e) {
+            if (!e.isUpstreamUnavailable()) {
+                throw e;
+            }
+            return tmdbClient.lastKnownTvShowDetails(tmdbId)
+                    .map(details -> new DetailsLookupDTO<>(ResponseMapper.toTvShowResponse(details), DetailsSource.CACHE))
+                    .or(() -> tvShowRepository.findByTmdbId(tmdbId)
+                            .map(stored -> new DetailsLookupDTO<>(ResponseMapper.toTvShowResponse(stored), DetailsSource.DATABASE)))
+                    .orElseThrow(() -> e);
+        }
+    }
+
     /**
      * Fetches detailed information about a TV show from the TMDB API.
      *
@@ -97,7 +165,7 @@ public class TvShowService {
      */
     public TvShowResponseDTO fetchTvShowDetails(Long tmdbId) {
         TmdbTvShowDTO tmdbTvShowDTO = tmdbClient.fetchTvShowDetails(tmdbId);
-        return toTvShowResponse(tmdbTvShowDTO);
+        return ServerTimings.time(ServerTimings.Category.MAPPING, () -> ResponseMapper.toTvShowResponse(tmdbTvShowDTO));
     }
 
     /**
@@ -105,14 +173,14 @@ public class TvShowService {
      *
      * This method interacts with the TMDB client to fetch the current list of TV shows
      * that are considered popular based on the API's criteria. The fetched data is
-     * transformed into a list of {@code TvShowResponseDTO} objects.
+     * transformed into a list of {@code TvShowResponseDTO} objects. The list is kept
+     * in memory and refreshed in the background, so this call does not wait on TMDB.
      *
      * @return a list of {@code TvShowResponseDTO} objects representing popular TV shows.
      *         The returned list may be empty if no popular TV shows are found.
      */
     public List<TvShowResponseDTO> popularTvShows() {
-        List<TmdbTvShowDTO> tmdbTvShowDTOList = tmdbClient.popularTvShows();
-        return tmdbTvShowDTOList.stream().map(this::toTvShowResponse).toList();
+        return popularTvShows.get();
     }
 
     /**
@@ -121,26 +189,30 @@ public class TvShowService {
      * This method interacts with the TMDB client to fetch the current list
      * of TV shows that are highly rated based on the API's criteria. The
      * method then converts the results into a list of {@code TvShowResponseDTO}
-     * objects.
+     * objects. The list is kept in memory and refreshed in the background, so this
+     * call does not wait on TMDB.
      *
      * @return a list of {@code TvShowResponseDTO} objects representing the top-rated TV shows.
      *         The returned list may be empty if no top-rated TV shows are found.
      */
     public List<TvShowResponseDTO> topRatedTvShows() {
-        List<TmdbTvShowDTO> tmdbTvShowDTOList = tmdbClient.topRatedTvShows();
-        return tmdbTvShowDTOList.stream().map(this::toTvShowResponse).toList();
+        return topRatedTvShows.get();
     }
 
     /**
      * Retrieves the official trailer for a TV show using its TMDB ID.
+     * The trailer is taken from the videos appended to the TV show details, which are served from
+     * the details cache, so this does not cost a separate TMDB request.
      *
      * @param tmdbId The unique ID of the TV show in TMDB.
      * @return A {@link TrailerDTO} representing the official trailer of the TV show.
      * @throws MediaNotFoundException if no official trailer is found for the given TV show.
      */
     public TrailerDTO getTvShowTrailer(Long tmdbId) {
-        List<TmdbVideoDTO> tmdbVideoDTOList = tmdbClient.fetchTvShowTrailers(tmdbId);
-        Optional<TrailerDTO> trailerDTO = tmdbVideoDTOList.stream().filter(f -> f.type().equals("Trailer") && f.official().equals(true)).map(this::toTrailer).findFirst();
+        TmdbTvShowDTO details = tmdbClient.fetchTvShowDetails(tmdbId);
+        List<TmdbVideoDTO> tmdbVideoDTOList = details.videos() == null || details.videos().results() == null
+                ? List.of() : details.videos().results();
+        Optional<TrailerDTO> trailerDTO = tmdbVideoDTOList.stream().filter(f -> "Trailer".equals(f.type()) && Boolean.TRUE.equals(f.official())).map(this::toTrailer).findFirst();
         return trailerDTO.orElseThrow(MediaNotFoundException::new);
     }
 
@@ -157,28 +229,4 @@ public class TvShowService {
                 tmdbVideoDTO.site()
         );
     }
-
-    /**
-     * Converts a TmdbTvShowDTO object into a TvShowResponseDTO object.
-     *
-     * @param tmdbTvShowDTO the input DTO containing data from the TMDB API about a TV show
-     * @return a TvShowResponseDTO containing the mapped data, including the trailer key if available
-     */
-    private TvShowResponseDTO toTvShowResponse(TmdbTvShowDTO tmdbTvShowDTO) {
-        String trailerKey = tmdbTvShowDTO.videos() == null ? null :
-                tmdbTvShowDTO.videos().results().stream()
-                        .filter(v -> v.type().equals("Trailer") && v.official().equals(true) && "YouTube".equals(v.site()))
-                        .map(TmdbVideoDTO::key)
-                        .findFirst()
-                        .orElse(null);
-        return new TvShowResponseDTO(
-                tmdbTvShowDTO.id(),
-                tmdbTvShowDTO.name(),
-                tmdbTvShowDTO.overview(),
-                tmdbTvShowDTO.first_air_date(),
-                tmdbTvShowDTO.poster_path(),
-                tmdbTvShowDTO.backdrop_path(),
-                tmdbTvShowDTO.vote_average(),
-                trailerKey);
-    }
 }
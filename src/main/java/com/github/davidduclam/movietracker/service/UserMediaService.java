@@ -1,40 +1,76 @@
 package com.github.davidduclam.movietracker.service;
 
 import com.github.davidduclam.movietracker.dto.*;
+import com.github.davidduclam.movietracker.error.InvalidCursorException;
 import com.github.davidduclam.movietracker.error.MediaAlreadyExistsException;
 import com.github.davidduclam.movietracker.error.MediaNotFoundException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
 import com.github.davidduclam.movietracker.error.UserNotFoundException;
 import com.github.davidduclam.movietracker.model.*;
+import com.github.davidduclam.movietracker.repository.UserMediaBatchRepository;
 import com.github.davidduclam.movietracker.repository.UserMediaRepository;
 import com.github.davidduclam.movietracker.repository.UserRepository;
+import com.github.davidduclam.movietracker.timing.ServerTimings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.util.Comparator;
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 @Service
 public class UserMediaService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CSV_HEADER =
+            "userMediaId,tmdbId,mediaType,title,overview,releaseDate,posterPath,backdropPath,voteAverage\n";
+
     private final UserMediaRepository userMediaRepository;
+    private final UserMediaBatchRepository userMediaBatchRepository;
     private final UserRepository userRepository;
     private final MovieService movieService;
     private final TvShowService tvShowService;
+    private final ObjectWriter watchlistItemWriter;
+    private final int exportChunkSize;
+    private final TransactionTemplate transactionTemplate;
+    private final int hydrationConcurrency;
 
-    public UserMediaService(UserMediaRepository userMediaRepository, UserRepository userRepository, MovieService movieService, TvShowService tvShowService) {
+    public UserMediaService(UserMediaRepository userMediaRepository, UserMediaBatchRepository userMediaBatchRepository,
+                            UserRepository userRepository, MovieService movieService, TvShowService tvShowService,
+                            JsonMapper jsonMapper, PlatformTransactionManager transactionManager,
+                            @Value("${watchlist.export.chunk-size:500}") int exportChunkSize,
+                            @Value("${watchlist.batch.hydration-concurrency:8}") int hydrationConcurrency) {
         this.userMediaRepository = userMediaRepository;
+        this.userMediaBatchRepository = userMediaBatchRepository;
         this.userRepository = userRepository;
         this.movieService = movieService;
         this.tvShowService = tvShowService;
+        this.watchlistItemWriter = jsonMapper.writerFor(WatchlistItemDTO.class);
+        this.exportChunkSize = exportChunkSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hydrationConcurrency = hydrationConcurrency;
     }
 
     /**
      * Adds media (movie or TV show) to a user's collection and persists it in the database.
      *
      * This method performs the following steps:
-     * - Retrieves the user by their ID from the database.
+     * - Checks that the user exists in the database.
      * - Saves media information to the respective database (Movie or TV Show).
-     * - Checks if the specified media already exists in the user's collection.
-     * - Saves the UserMedia entity associating the user with the specified media.
+     * - Inserts the UserMedia entry with a single upsert, which reports whether the media
+     *   was already in the user's collection without a separate existence check.
+     *
+     * The method deliberately runs without a surrounding transaction: each step is a short,
+     * single-statement write, and the TMDb call made to store a missing movie or TV show happens
+     * while no database connection is held, so a slow TMDb cannot exhaust the connection pool.
      *
      * @param userId The unique identifier of the user to whom the media is to be added.
      * @param userMediaRequestDTO A data transfer object containing the information about the media
@@ -43,25 +79,65 @@ public class UserMediaService {
      * @throws UserNotFoundException If the specified user does not exist.
      * @throws MediaAlreadyExistsException If the media has already been added to the user's collection.
      */
-    @Transactional
     public UserMedia addMediaToUser(Long userId, UserMediaRequestDTO userMediaRequestDTO) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException();
+        }
 
         saveMediaToMovieOrTvShowDb(userMediaRequestDTO);
 
-        if (userMediaRepository.existsByUserIdAndMediaTypeAndTmdbId(userId, userMediaRequestDTO.mediaType(), userMediaRequestDTO.tmdbId())) {
-            throw new MediaAlreadyExistsException();
+        return saveUserMediaToDb(userId, userMediaRequestDTO);
+    }
+
+    /**
+     * Adds several titles to a user's watchlist at once and reports the outcome of each one.
+     *
+     * This method performs the following steps:
+     * - Checks that the user exists in the database.
+     * - Looks up, in one query per media type, which titles are not stored as movies or TV shows yet.
+     * - Fetches those titles from TMDb in parallel, with at most
+     *   {@code watchlist.batch.hydration-concurrency} requests in flight, before any transaction starts.
+     * - Writes the fetched catalog rows and the watchlist entries as JDBC batches in a single transaction,
+     *   skipping entries that are already on the watchlist.
+     *
+     * A title that cannot be fetched from TMDb is reported as NOT_FOUND or FAILED and does not stop the
+     * rest of the batch. A title listed more than once gets the same result for each occurrence.
+     *
+     * @param userId The unique identifier of the user to whom the media is to be added.
+     * @param items The titles to add, each with its TMDb ID and media type.
+     * @return the result of each item, in request order
+     * @throws UserNotFoundException If the specified user does not exist.
+     */
+    public List<UserMediaBatchResultDTO> addMediaToUserBatch(Long userId, List<UserMediaRequestDTO> items) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException();
         }
 
-        return saveUserMediaToDb(user, userMediaRequestDTO);
+        List<UserMediaRequestDTO> uniqueItems = sortedDistinct(items);
+        Hydration hydration = hydrateMissingCatalogEntries(uniqueItems);
+        List<UserMediaRequestDTO> writableItems = uniqueItems.stream()
+                .filter(item -> !hydration.failures().containsKey(item))
+                .toList();
+
+        int[] inserted = transactionTemplate.execute(status -> {
+            userMediaBatchRepository.insertMoviesIfAbsent(hydration.movies());
+            userMediaBatchRepository.insertTvShowsIfAbsent(hydration.tvShows());
+            return userMediaBatchRepository.insertUserMediaIfAbsent(userId, writableItems);
+        });
+
+        Map<UserMediaRequestDTO, UserMediaBatchResultDTO> results = new HashMap<>(hydration.failures());
+        for (int i = 0; i < writableItems.size(); i++) {
+            UserMediaRequestDTO item = writableItems.get(i);
+            results.put(item, batchResult(item, inserted[i] > 0 ? BatchItemStatus.ADDED : BatchItemStatus.ALREADY_EXISTS, null));
+        }
+        return items.stream().map(results::get).toList();
     }
 
     /**
      * Retrieves a list of media items associated with a specific user.
      * The list is sorted in descending order by the user media id.
-     * Media items can be of type Movie or TV Show, and additional details
-     * are fetched based on the provided media type.
+     * The whole watchlist, including movie and TV show details, is loaded with a single
+     * query joining the user's media against the stored movies and TV shows.
      *
      * @param userId the unique identifier of the user whose media items are to be retrieved
      * @return a list of media items (WatchlistItemDTO) belonging to the user
@@ -69,19 +145,81 @@ public class UserMediaService {
      */
     @Transactional(readOnly = true)
     public List<WatchlistItemDTO> getMediaFromUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException();
+        }
 
-        return userMediaRepository.findUserMediaByUserId(userId).stream()
-                .sorted(Comparator.comparing(UserMedia::getId).reversed())
-                .map(userMedia -> {
-                    if (userMedia.getMediaType() == MediaType.MOVIE) {
-                        return toWatchlistItem(userMedia, movieService.getMovieFromDb(userMedia.getTmdbId()));
-                    } else {
-                        return toWatchlistItem(userMedia, tvShowService.getTvShowFromDb(userMedia.getTmdbId()));
-                    }
-                })
-                .toList();
+        List<WatchlistRowDTO> rows = userMediaRepository.findWatchlistByUserId(userId);
+        return ServerTimings.time(ServerTimings.Category.MAPPING,
+                () -> rows.stream().map(this::toWatchlistItem).toList());
+    }
+
+    /**
+     * Retrieves one page of a user's watchlist using keyset pagination on the user media id.
+     * Pages are sorted in descending order by the user media id, and each page costs the same
+     * regardless of how far into the watchlist it is.
+     *
+     * @param userId the unique identifier of the user whose media items are to be retrieved
+     * @param after the opaque cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the requested page size, clamped between 1 and {@value #MAX_PAGE_SIZE}
+     * @return a WatchlistPageDTO with the page items and the cursor of the next page,
+     *         which is {@code null} when there are no more items
+     * @throws UserNotFoundException if the user with the specified ID is not found
+     * @throws InvalidCursorException if the cursor could not be decoded
+     */
+    @Transactional(readOnly = true)
+    public WatchlistPageDTO getMediaPageFromUser(Long userId, String after, int limit) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException();
+        }
+
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<WatchlistRowDTO> rows = after == null || after.isBlank()
+                ? userMediaRepository.findWatchlistPageByUserId(userId, fetchLimit)
+                : userMediaRepository.findWatchlistPageByUserIdAfter(userId, decodeCursor(after), fetchLimit);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<WatchlistItemDTO> items = ServerTimings.time(ServerTimings.Category.MAPPING, () -> rows.stream()
+                .limit(pageSize)
+                .map(this::toWatchlistItem)
+                .toList());
+        String nextCursor = hasNext ? encodeCursor(items.getLast().userMediaId()) : null;
+        return new WatchlistPageDTO(items, nextCursor);
+    }
+
+    /**
+     * Writes a user's whole watchlist to the given stream as NDJSON (one item per line) or CSV,
+     * newest entry first.
+     *
+     * The watchlist is read in fixed-size chunks walking the (user_id, id) index, and each chunk
+     * is written and flushed before the next one is read, so memory use stays flat no matter how
+     * large the watchlist is. Every chunk is its own short read, so no database connection is held
+     * while waiting on a slow client.
+     *
+     * @param userId the unique identifier of the user whose watchlist is exported
+     * @param format the output format
+     * @param outputStream the stream the export is written to
+     * @throws IOException if writing to the stream fails
+     */
+    public void exportMediaFromUser(Long userId, ExportFormat format, OutputStream outputStream) throws IOException {
+        if (format == ExportFormat.CSV) {
+            outputStream.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Limit chunkLimit = Limit.of(exportChunkSize);
+        List<WatchlistRowDTO> rows = userMediaRepository.findWatchlistPageByUserId(userId, chunkLimit);
+        while (!rows.isEmpty()) {
+            for (WatchlistRowDTO row : rows) {
+                outputStream.write(format == ExportFormat.CSV ? toCsvLine(row) : toJsonLine(row));
+            }
+            outputStream.flush();
+
+            if (rows.size() < exportChunkSize) {
+                break;
+            }
+            rows = userMediaRepository.findWatchlistPageByUserIdAfter(userId, rows.getLast().userMediaId(), chunkLimit);
+        }
     }
 
     /**
@@ -107,57 +245,144 @@ public class UserMediaService {
     }
 
     /**
-     * Converts a UserMedia object and a MovieResponseDTO object into a WatchlistItemDTO.
+     * Removes several titles from a user's watchlist in a single transaction, sending all deletes
+     * as one JDBC batch, and reports the outcome of each one.
      *
-     * @param userMedia the user-specific media entity containing user-specific media information
-     * @param movieResponseDTO the movie response data transfer object containing movie-related details
-     * @return a WatchlistItemDTO representing the movie in the user's watchlist
+     * @param userId the unique identifier of the user whose watchlist is changed
+     * @param items the titles to remove, each with its TMDb ID and media type
+     * @return the result of each item, REMOVED or NOT_FOUND, in request order
+     * @throws UserNotFoundException if the user with the specified ID does not exist
      */
-    private WatchlistItemDTO toWatchlistItem(UserMedia userMedia, MovieResponseDTO movieResponseDTO) {
-        return new MovieWatchlistItemDTO(
-                userMedia.getId(),
-                movieResponseDTO.id(),
-                MediaType.MOVIE,
-                movieResponseDTO.title(),
-                movieResponseDTO.overview(),
-                movieResponseDTO.releaseDate(),
-                movieResponseDTO.posterPath(),
-                movieResponseDTO.backdropPath(),
-                movieResponseDTO.voteAverage()
-        );
+    public List<UserMediaBatchResultDTO> deleteMediaFromUserBatch(Long userId, List<UserMediaRequestDTO> items) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException();
+        }
+
+        List<UserMediaRequestDTO> uniqueItems = sortedDistinct(items);
+        int[] deleted = transactionTemplate.execute(status -> userMediaBatchRepository.deleteUserMedia(userId, uniqueItems));
+
+        Map<UserMediaRequestDTO, UserMediaBatchResultDTO> results = new HashMap<>();
+        for (int i = 0; i < uniqueItems.size(); i++) {
+            UserMediaRequestDTO item = uniqueItems.get(i);
+            results.put(item, batchResult(item, deleted[i] > 0 ? BatchItemStatus.REMOVED : BatchItemStatus.NOT_FOUND, null));
+        }
+        return items.stream().map(results::get).toList();
     }
 
     /**
-     * Converts user media data and TV show response data into a WatchlistItemDTO.
+     * Converts a joined watchlist row into a WatchlistItemDTO, picking the movie or TV show
+     * representation based on the row's media type.
      *
-     * @param userMedia the user media entity containing user-specific information
-     * @param tvShowResponseDTO the TV show response data containing details about the TV show
-     * @return a WatchlistItemDTO representing the TV show and user-specific information in the watchlist
+     * @param row the watchlist row containing user media and catalog details
+     * @return a WatchlistItemDTO representing the movie or TV show in the user's watchlist
      */
-    private WatchlistItemDTO toWatchlistItem(UserMedia userMedia, TvShowResponseDTO tvShowResponseDTO) {
+    private WatchlistItemDTO toWatchlistItem(WatchlistRowDTO row) {
+        if (row.mediaType() == MediaType.MOVIE) {
+            return new MovieWatchlistItemDTO(
+                    row.userMediaId(),
+                    row.tmdbId(),
+                    MediaType.MOVIE,
+                    row.title(),
+                    row.overview(),
+                    row.releaseDate(),
+                    row.posterPath(),
+                    row.backdropPath(),
+                    row.voteAverage()
+            );
+        }
         return new TvShowWatchlistItemDTO(
-                userMedia.getId(),
-                tvShowResponseDTO.id(),
+                row.userMediaId(),
+                row.tmdbId(),
                 MediaType.TV,
-                tvShowResponseDTO.name(),
-                tvShowResponseDTO.overview(),
-                tvShowResponseDTO.firstAirDate(),
-                tvShowResponseDTO.posterPath(),
-                tvShowResponseDTO.backdropPath(),
-                tvShowResponseDTO.voteAverage()
+                row.title(),
+                row.overview(),
+                row.releaseDate(),
+                row.posterPath(),
+                row.backdropPath(),
+                row.voteAverage()
         );
     }
 
     /**
-     * Saves a new UserMedia entity to the database based on the provided user and request DTO.
-     * Delegates the saving logic to the {@code addUserMediaToDb} method.
+     * Serializes a watchlist row as a single NDJSON line.
+     *
+     * @param row the watchlist row to serialize
+     * @return the JSON representation of the watchlist item followed by a newline
+     */
+    private byte[] toJsonLine(WatchlistRowDTO row) {
+        byte[] json = watchlistItemWriter.writeValueAsBytes(toWatchlistItem(row));
+        byte[] line = Arrays.copyOf(json, json.length + 1);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    /**
+     * Serializes a watchlist row as a single CSV line, quoting the free-text columns.
+     *
+     * @param row the watchlist row to serialize
+     * @return the CSV representation of the watchlist row followed by a newline
+     */
+    private byte[] toCsvLine(WatchlistRowDTO row) {
+        return String.join(",",
+                        String.valueOf(row.userMediaId()),
+                        String.valueOf(row.tmdbId()),
+                        row.mediaType().name(),
+                        csvField(row.title()),
+                        csvField(row.overview()),
+                        row.releaseDate() == null ? "" : row.releaseDate().toString(),
+                        csvField(row.posterPath()),
+                        csvField(row.backdropPath()),
+                        row.voteAverage() == null ? "" : row.voteAverage().toString())
+                .concat("\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String csvField(String value) {
+        return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Encodes a user media id into an opaque, URL-safe watchlist cursor.
+     *
+     * @param userMediaId the id of the last item of the current page
+     * @return the encoded cursor
+     */
+    private String encodeCursor(Long userMediaId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(userMediaId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a watchlist cursor produced by {@link #encodeCursor(Long)}.
+     *
+     * @param cursor the opaque cursor sent by the client
+     * @return the user media id the cursor points at
+     * @throws InvalidCursorException if the cursor is malformed
+     */
+    private Long decodeCursor(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Saves a new UserMedia entry to the database with a single upsert and loads the stored entity.
      *
-     * @param user The User entity associated with the UserMedia to be added.
+     * @param userId The unique identifier of the user the media is added to.
      * @param userMediaRequestDTO The data transfer object containing information required to create the UserMedia entity.
      * @return The UserMedia entity that was saved to the database.
+     * @throws MediaAlreadyExistsException If the media has already been added to the user's collection.
      */
-    private UserMedia saveUserMediaToDb(User user, UserMediaRequestDTO userMediaRequestDTO) {
-        return addUserMediaToDb(user, userMediaRequestDTO);
+    private UserMedia saveUserMediaToDb(Long userId, UserMediaRequestDTO userMediaRequestDTO) {
+        if (userMediaRepository.insertIfAbsent(userId, userMediaRequestDTO.mediaType(), userMediaRequestDTO.tmdbId()) == 0) {
+            throw new MediaAlreadyExistsException();
+        }
+
+        return userMediaRepository
+                .findByUserIdAndTmdbIdAndMediaType(userId, userMediaRequestDTO.tmdbId(), userMediaRequestDTO.mediaType())
+                .orElseThrow(MediaNotFoundException::new);
     }
 
     /**
@@ -182,19 +407,69 @@ public class UserMediaService {
     }
 
     /**
-     * Adds a new UserMedia entity to the database based on the provided user and request DTO.
+     * Fetches from TMDb the titles of a batch that are not stored as movies or TV shows yet,
+     * running at most {@code hydrationConcurrency} requests at a time on virtual threads.
      *
-     * @param user The User entity associated with the UserMedia to be added.
-     * @param userMediaRequestDTO The data transfer object containing information required to create the UserMedia entity.
-     * @return The UserMedia entity that was saved to the database.
+     * @param items the distinct titles of the batch
+     * @return the fetched, unsaved catalog entities and the items that could not be fetched
      */
-    private UserMedia addUserMediaToDb(User user, UserMediaRequestDTO userMediaRequestDTO) {
-        UserMedia userMedia = new UserMedia();
-        userMedia.setUser(user);
-        userMedia.setTmdbId(userMediaRequestDTO.tmdbId());
-        userMedia.setMediaType(userMediaRequestDTO.mediaType());
+    private Hydration hydrateMissingCatalogEntries(List<UserMediaRequestDTO> items) {
+        Set<Long> storedMovies = movieService.findStoredTmdbIds(tmdbIdsOf(items, MediaType.MOVIE));
+        Set<Long> storedTvShows = tvShowService.findStoredTmdbIds(tmdbIdsOf(items, MediaType.TV));
+        List<UserMediaRequestDTO> missing = items.stream()
+                .filter(item -> !(item.mediaType() == MediaType.MOVIE ? storedMovies : storedTvShows).contains(item.tmdbId()))
+                .toList();
+
+        long fetchStart = System.nanoTime();
+        Map<UserMediaRequestDTO, ParallelFetches.Outcome<Object>> fetches = ParallelFetches.fetchAll(missing,
+                hydrationConcurrency, item -> item.mediaType() == MediaType.MOVIE
+                        ? movieService.fetchMovieEntity(item.tmdbId())
+                        : tvShowService.fetchTvShowEntity(item.tmdbId()));
+        // The fetches run on their own threads, so the request is charged their wall-clock time.
+        ServerTimings.record(ServerTimings.Category.TMDB, System.nanoTime() - fetchStart);
 
-        userMediaRepository.save(userMedia);
-        return userMedia;
+        List<Movie> movies = new ArrayList<>();
+        List<TvShow> tvShows = new ArrayList<>();
+        Map<UserMediaRequestDTO, UserMediaBatchResultDTO> failures = new HashMap<>();
+        fetches.forEach((item, fetch) -> {
+            if (!fetch.succeeded()) {
+                failures.put(item, hydrationFailure(item, fetch.failure()));
+            } else if (fetch.result() instanceof Movie movie) {
+                movies.add(movie);
+            } else {
+                tvShows.add((TvShow) fetch.result());
+            }
+        });
+        return new Hydration(movies, tvShows, failures);
     }
+
+    private UserMediaBatchResultDTO hydrationFailure(UserMediaRequestDTO item, Throwable e) {
+        if (e instanceof TmdbClientException tmdbError && tmdbError.getStatus() != null
+                && tmdbError.getStatus().value() == HttpStatus.NOT_FOUND.value()) {
+            return batchResult(item, BatchItemStatus.NOT_FOUND, "Not found on TMDb");
+        }
+        return batchResult(item, BatchItemStatus.FAILED, e.getMessage());
+    }
+
+    private static UserMediaBatchResultDTO batchResult(UserMediaRequestDTO item, BatchItemStatus status, String message) {
+        return new UserMediaBatchResultDTO(item.tmdbId(), item.mediaType(), status, message);
+    }
+
+    private static List<Long> tmdbIdsOf(List<UserMediaRequestDTO> items, MediaType mediaType) {
+        return items.stream().filter(item -> item.mediaType() == mediaType).map(UserMediaRequestDTO::tmdbId).toList();
+    }
+
+    /**
+     * Removes duplicate items and sorts the rest by media type and TMDb ID, so concurrent batches
+     * touch rows in the same order and cannot deadlock each other.
+     */
+    private static List<UserMediaRequestDTO> sortedDistinct(List<UserMediaRequestDTO> items) {
+        return items.stream()
+                .distinct()
+                .sorted(Comparator.comparing(UserMediaRequestDTO::mediaType).thenComparing(UserMediaRequestDTO::tmdbId))
+                .toList();
+    }
+
+    private record Hydration(List<Movie> movies, List<TvShow> tvShows,
+                             Map<UserMediaRequestDTO, UserMediaBatchResultDTO> failures) {}
 }
@@ -0,0 +1,70 @@
+package com.github.davidduclam.movietracker.sql;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The SQL statements executed by the current request. {@link StatementBudgetFilter} binds one
+ * instance to the request thread and {@link StatementStatistics} reports every execution into it;
+ * statements run on other threads or outside a request are not counted.
+ */
+final class RequestStatements {
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int count;
+
+    private RequestStatements() {
+    }
+
+    /**
+     * Starts counting for the current thread, replacing any previous counter.
+     */
+    static RequestStatements start() {
+        RequestStatements statements = new RequestStatements();
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Counts an execution towards the current request, if there is one. Batches count once towards
+     * the total and are left out of the repeated statement check, as sending rows together is the
+     * cure for N+1 rather than a symptom of it.
+     *
+     * @param sql the normalized statement
+     * @param batch whether it was executed as a JDBC batch
+     */
+    static void record(String sql, boolean batch) {
+        RequestStatements statements = CURRENT.get();
+        if (statements != null) {
+            statements.count++;
+            if (!batch) {
+                statements.executionsBySql.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * @param maxRepeats the number of executions of one statement considered normal
+     * @return the statements executed more often than that, with their execution counts
+     */
+    Map<String, Integer> repeatedStatements(int maxRepeats) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executionsBySql.forEach((sql, executions) -> {
+            if (executions > maxRepeats) {
+                repeated.put(sql, executions);
+            }
+        });
+        return repeated;
+    }
+}
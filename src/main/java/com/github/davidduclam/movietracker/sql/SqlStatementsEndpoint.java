@@ -0,0 +1,34 @@
+package com.github.davidduclam.movietracker.sql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/sqlstatements}: the statements executed most often and those taking the most
+ * time in total since startup or the last reset. Read-only over HTTP; the reset is a JMX operation,
+ * see {@link SqlStatementsJmxExtension}.
+ */
+@Component
+@Endpoint(id = "sqlstatements")
+public class SqlStatementsEndpoint {
+
+    private final StatementStatistics statistics;
+    private final int limit;
+
+    public SqlStatementsEndpoint(StatementStatistics statistics, @Value("${sql.statistics.top:20}") int limit) {
+        this.statistics = statistics;
+        this.limit = limit;
+    }
+
+    public record TopStatements(List<StatementStatistics.Summary> byExecutions,
+                                List<StatementStatistics.Summary> byTotalTime) {}
+
+    @ReadOperation
+    public TopStatements topStatements() {
+        return new TopStatements(statistics.topByExecutions(limit), statistics.topByTotalTime(limit));
+    }
+}
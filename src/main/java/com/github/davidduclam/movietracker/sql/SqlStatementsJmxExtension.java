@@ -0,0 +1,25 @@
+package com.github.davidduclam.movietracker.sql;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.EndpointJmxExtension;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds a reset of the statement statistics to the {@code sqlstatements} endpoint over JMX only
+ * ({@code spring.jmx.enabled=true}), so it cannot be reached through the unsecured HTTP actuator.
+ */
+@Component
+@EndpointJmxExtension(endpoint = SqlStatementsEndpoint.class)
+public class SqlStatementsJmxExtension {
+
+    private final StatementStatistics statistics;
+
+    public SqlStatementsJmxExtension(StatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.davidduclam.movietracker.sql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The maximum number of SQL statements one request to an endpoint may execute, checked by
+ * {@link StatementBudgetFilter}. On a handler method it overrides one on the controller class;
+ * endpoints without either get {@code sql.statement-budget.default}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    /**
+     * @return the maximum number of statements, counting a JDBC batch as one
+     */
+    int value();
+}
@@ -0,0 +1,105 @@
+package com.github.davidduclam.movietracker.sql;
+
+import com.github.davidduclam.movietracker.error.StatementBudgetExceededException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements each request executes and checks them once the request is handled:
+ * <ul>
+ *     <li>the total must stay within the endpoint's {@link StatementBudget}, or
+ *     {@code sql.statement-budget.default} for endpoints without one;</li>
+ *     <li>no single statement may run more than {@code sql.statement-budget.max-repeats} times,
+ *     which is how an N+1 query pattern shows up.</li>
+ * </ul>
+ * Violations are logged as warnings. With {@code sql.statement-budget.fail-on-exceed}, which the
+ * test profile turns on, a {@link StatementBudgetExceededException} is thrown instead, so that
+ * endpoint tests fail when a change makes an endpoint chattier.
+ */
+@Component
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    private final boolean enabled;
+    private final int defaultBudget;
+    private final int maxRepeats;
+    private final boolean failOnExceed;
+
+    public StatementBudgetFilter(@Value("${sql.statement-budget.enabled:true}") boolean enabled,
+                                 @Value("${sql.statement-budget.default:20}") int defaultBudget,
+                                 @Value("${sql.statement-budget.max-repeats:5}") int maxRepeats,
+                                 @Value("${sql.statement-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.enabled = enabled;
+        this.defaultBudget = defaultBudget;
+        this.maxRepeats = maxRepeats;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatements statements = RequestStatements.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatements.clear();
+        }
+        check(request, statements);
+    }
+
+    private void check(HttpServletRequest request, RequestStatements statements) {
+        int budget = budget(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        List<String> violations = new ArrayList<>();
+        if (statements.count() > budget) {
+            violations.add(statements.count() + " statements, budget " + budget);
+        }
+        for (Map.Entry<String, Integer> repeated : statements.repeatedStatements(maxRepeats).entrySet()) {
+            violations.add("possible N+1, " + repeated.getValue() + " executions of: " + repeated.getKey());
+        }
+        if (violations.isEmpty()) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String message = "SQL statement budget exceeded by " + request.getMethod() + " "
+                + (pattern == null ? request.getRequestURI() : pattern) + ": " + String.join("; ", violations);
+        if (failOnExceed) {
+            throw new StatementBudgetExceededException(message);
+        }
+        logger.warn(message);
+    }
+
+    private int budget(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            StatementBudget budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), StatementBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), StatementBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.davidduclam.movietracker.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Execution counts and times of every SQL statement sent through the application's data source,
+ * keyed on the statement text with whitespace collapsed. Statements slower than
+ * {@code sql.slow-query-threshold} are logged, which replaces logging every statement with
+ * {@code spring.jpa.show-sql}.
+ * <p>
+ * Statements run with literal values instead of bind parameters each get their own entry, so at
+ * most {@code sql.statistics.max-statements} distinct statements are tracked; the rest are added up
+ * under {@link #OTHER_STATEMENTS}.
+ */
+@Component
+public class StatementStatistics {
+
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementStatistics.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long slowQueryThresholdNanos;
+    private final int maxStatements;
+    private final Map<String, Totals> totalsBySql = new ConcurrentHashMap<>();
+
+    public StatementStatistics(@Value("${sql.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+                               @Value("${sql.statistics.max-statements:500}") int maxStatements) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * A statement with its execution count and times, in milliseconds.
+     */
+    public record Summary(String sql, long executions, double totalMs, double meanMs, double maxMs) {}
+
+    /**
+     * Records one execution, counts it towards the current request and logs it if it was slow.
+     *
+     * @param sql the statement as sent to the driver
+     * @param batch whether it was executed as a JDBC batch
+     * @param elapsedNanos the time the driver took to execute it
+     */
+    void record(String sql, boolean batch, long elapsedNanos) {
+        String normalizedSql = normalize(sql);
+        RequestStatements.record(normalizedSql, batch);
+        Totals totals = totalsBySql.get(normalizedSql);
+        if (totals == null) {
+            totals = totalsBySql.size() < maxStatements
+                    ? totalsBySql.computeIfAbsent(normalizedSql, key -> new Totals())
+                    : totalsBySql.computeIfAbsent(OTHER_STATEMENTS, key -> new Totals());
+        }
+        totals.executions.increment();
+        totals.totalNanos.add(elapsedNanos);
+        totals.maxNanos.accumulate(elapsedNanos);
+
+        if (elapsedNanos >= slowQueryThresholdNanos) {
+            logger.warn("Slow query duration_ms={} batch={} sql={}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), batch,
+                    normalizedSql);
+        }
+    }
+
+    /**
+     * @param limit the maximum number of statements to return
+     * @return the most frequently executed statements, most frequent first
+     */
+    public List<Summary> topByExecutions(int limit) {
+        return top(Comparator.comparingLong(Summary::executions), limit);
+    }
+
+    /**
+     * @param limit the maximum number of statements to return
+     * @return the statements with the highest total execution time, slowest first
+     */
+    public List<Summary> topByTotalTime(int limit) {
+        return top(Comparator.comparingDouble(Summary::totalMs), limit);
+    }
+
+    /**
+     * Forgets all recorded executions.
+     */
+    public void reset() {
+        totalsBySql.clear();
+    }
+
+    private List<Summary> top(Comparator<Summary> order, int limit) {
+        return totalsBySql.entrySet().stream()
+                .map(entry -> entry.getValue().summary(entry.getKey()))
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    static String normalize(String sql) {
+        return sql == null ? "(unknown)" : WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+    }
+
+    private static final class Totals {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Summary summary(String sql) {
+            long count = executions.sum();
+            double totalMs = millis(totalNanos.sum());
+            return new Summary(sql, count, totalMs, count == 0 ? 0 : totalMs / count, millis(maxNanos.get()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
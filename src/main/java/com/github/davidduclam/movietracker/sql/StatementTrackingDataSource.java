@@ -0,0 +1,95 @@
+package com.github.davidduclam.movietracker.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the pooled data source so that every statement executed through it, whether by Hibernate,
+ * {@code JdbcTemplate} or Flyway, is timed and reported to {@link StatementStatistics}. Connections
+ * and statements are wrapped in JDK proxies; only the {@code execute*} methods do extra work.
+ */
+class StatementTrackingDataSource extends DelegatingDataSource {
+
+    private final StatementStatistics statistics;
+
+    StatementTrackingDataSource(DataSource targetDataSource, StatementStatistics statistics) {
+        super(targetDataSource);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trackConnection(super.getConnection(username, password));
+    }
+
+    private Connection trackConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, proxy, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String preparedSql ? preparedSql : null;
+                return trackStatement(method.getReturnType().asSubclass(Statement.class), statement, sql);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @param type the statement interface returned to the caller
+     * @param statement the driver's statement
+     * @param preparedSql the SQL it was prepared with, or null for a plain {@link Statement}
+     */
+    private <S extends Statement> S trackStatement(Class<S> type, Statement statement, String preparedSql) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, proxy, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String executedSql ? executedSql : preparedSql;
+            boolean batch = method.getName().endsWith("Batch");
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, proxy, method, args);
+            } finally {
+                statistics.record(sql, batch, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementTrackingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Calls the method on the driver's object, keeping the proxy's identity for
+     * {@code equals} and {@code hashCode} and rethrowing what the driver threw.
+     */
+    private static Object invoke(Object target, Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            default -> {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.davidduclam.movietracker.sql;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@link DataSource} in a {@link StatementTrackingDataSource} once it is
+ * initialized, unless {@code sql.tracking.enabled} is false.
+ */
+@Component
+public class StatementTrackingPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<StatementStatistics> statistics;
+    private final boolean enabled;
+
+    public StatementTrackingPostProcessor(ObjectProvider<StatementStatistics> statistics,
+                                          @Value("${sql.tracking.enabled:true}") boolean enabled) {
+        this.statistics = statistics;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !(bean instanceof StatementTrackingDataSource)) {
+            return new StatementTrackingDataSource(dataSource, statistics.getObject());
+        }
+        return bean;
+    }
+}
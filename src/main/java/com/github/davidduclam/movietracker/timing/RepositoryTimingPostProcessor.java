@@ -0,0 +1,32 @@
+package com.github.davidduclam.movietracker.timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every Spring Data repository call as {@link ServerTimings.Category#DB}, by adding an
+ * interceptor to each repository proxy as it is created.
+ */
+@Component
+public class RepositoryTimingPostProcessor implements BeanPostProcessor {
+
+    private static final MethodInterceptor TIMING_INTERCEPTOR = invocation -> {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            ServerTimings.record(ServerTimings.Category.DB, System.nanoTime() - start);
+        }
+    };
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(TIMING_INTERCEPTOR)));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.davidduclam.movietracker.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Binds a {@link ServerTimings} collector to every request and, once the response is written,
+ * logs a single {@code key=value} line for requests slower than
+ * {@code server-timing.slow-request-threshold}. The total includes writing the response body,
+ * which the {@code Server-Timing} header, sent before the body, cannot.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private final boolean enabled;
+    private final long slowRequestThresholdNanos;
+
+    public ServerTimingFilter(@Value("${server-timing.enabled:true}") boolean enabled,
+                              @Value("${server-timing.slow-request-threshold:1s}") Duration slowRequestThreshold) {
+        this.enabled = enabled;
+        this.slowRequestThresholdNanos = slowRequestThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ServerTimings timings = ServerTimings.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ServerTimings.clear();
+            long totalNanos = timings.elapsedNanos();
+            if (totalNanos >= slowRequestThresholdNanos) {
+                logger.warn("Slow request method={} path={} status={} {}", request.getMethod(), request.getRequestURI(),
+                        response.getStatus(), timings.logFields(totalNanos));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.davidduclam.movietracker.timing;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-request breakdown of where the time went: TMDB calls, database access, mapping and
+ * serialization. {@link ServerTimingFilter} binds one instance to the request thread; the code
+ * being measured reports into it through the static methods, which do nothing outside a request
+ * (scheduled jobs, or work handed to other threads).
+ * <p>
+ * Recording costs two {@link System#nanoTime()} calls and a thread-local lookup, so it stays on in
+ * production. Categories are not exclusive: a lazy load triggered while mapping counts towards both
+ * {@code db} and {@code map}.
+ */
+public final class ServerTimings {
+
+    /** Where time can be spent, with the metric name used in the {@code Server-Timing} header. */
+    public enum Category {
+        TMDB("tmdb"),
+        DB("db"),
+        MAPPING("map"),
+        SERIALIZATION("serialize");
+
+        private final String metricName;
+
+        Category(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static final ThreadLocal<ServerTimings> CURRENT = new ThreadLocal<>();
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[CATEGORIES.length];
+    private final int[] counts = new int[CATEGORIES.length];
+
+    private ServerTimings() {
+    }
+
+    /**
+     * Starts collecting for the current thread, replacing any previous collector.
+     */
+    static ServerTimings start() {
+        ServerTimings timings = new ServerTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds time spent in a category to the current request, if there is one.
+     *
+     * @param category where the time was spent
+     * @param elapsedNanos the time spent, in nanoseconds
+     */
+    public static void record(Category category, long elapsedNanos) {
+        ServerTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.nanos[category.ordinal()] += elapsedNanos;
+            timings.counts[category.ordinal()]++;
+        }
+    }
+
+    /**
+     * Runs the work and adds its duration to the current request, if there is one.
+     *
+     * @param category where the time is spent
+     * @param work the work to measure
+     * @return the result of the work
+     */
+    public static <T> T time(Category category, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(category, System.nanoTime() - start);
+        }
+    }
+
+    static ServerTimings current() {
+        return CURRENT.get();
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Formats the collected times as a {@code Server-Timing} header value, such as
+     * {@code tmdb;dur=182.4;desc="2 calls", db;dur=3.1;desc="4 calls", app;dur=190.2}.
+     * Categories that were not used are left out.
+     */
+    String headerValue() {
+        StringJoiner header = new StringJoiner(", ");
+        for (Category category : CATEGORIES) {
+            int count = counts[category.ordinal()];
+            if (count > 0) {
+                header.add(String.format(Locale.ROOT, "%s;dur=%.1f;desc=\"%d %s\"", category.metricName,
+                        millis(nanos[category.ordinal()]), count, count == 1 ? "call" : "calls"));
+            }
+        }
+        header.add(String.format(Locale.ROOT, "app;dur=%.1f", millis(elapsedNanos())));
+        return header.toString();
+    }
+
+    /**
+     * Formats the collected times as {@code key=value} pairs for a log line, such as
+     * {@code total_ms=1204.7 tmdb_ms=1150.2 tmdb_calls=3 db_ms=12.0 db_calls=2}.
+     */
+    String logFields(long totalNanos) {
+        StringBuilder fields = new StringBuilder(String.format(Locale.ROOT, "total_ms=%.1f", millis(totalNanos)));
+        for (Category category : CATEGORIES) {
+            int count = counts[category.ordinal()];
+            if (count > 0) {
+                fields.append(String.format(Locale.ROOT, " %s_ms=%.1f %s_calls=%d", category.metricName,
+                        millis(nanos[category.ordinal()]), category.metricName, count));
+            }
+        }
+        return fields.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
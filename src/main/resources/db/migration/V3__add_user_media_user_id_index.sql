@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_user_media_user_id_id ON user_media (user_id, id DESC);
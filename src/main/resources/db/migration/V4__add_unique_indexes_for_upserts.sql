@@ -0,0 +1,20 @@
+DELETE FROM user_media a
+    USING user_media b
+WHERE a.user_id = b.user_id
+  AND a.media_type = b.media_type
+  AND a.tmdb_id = b.tmdb_id
+  AND a.id > b.id;
+
+DELETE FROM movies a
+    USING movies b
+WHERE a.tmdb_id = b.tmdb_id
+  AND a.id > b.id;
+
+DELETE FROM tv_shows a
+    USING tv_shows b
+WHERE a.tmdb_id = b.tmdb_id
+  AND a.id > b.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_movies_tmdb_id ON movies (tmdb_id);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_tv_shows_tmdb_id ON tv_shows (tmdb_id);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_user_media_user_id_media_type_tmdb_id ON user_media (user_id, media_type, tmdb_id);
@@ -0,0 +1,4 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_movies_title_trgm ON movies USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_tv_shows_title_trgm ON tv_shows USING gin (lower(title) gin_trgm_ops);
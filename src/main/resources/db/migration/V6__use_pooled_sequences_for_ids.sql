@@ -0,0 +1,21 @@
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE movies ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE tv_shows ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE user_media ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50 OWNED BY users.id;
+CREATE SEQUENCE IF NOT EXISTS movies_seq INCREMENT BY 50 OWNED BY movies.id;
+CREATE SEQUENCE IF NOT EXISTS tv_shows_seq INCREMENT BY 50 OWNED BY tv_shows.id;
+CREATE SEQUENCE IF NOT EXISTS user_media_seq INCREMENT BY 50 OWNED BY user_media.id;
+
+-- Hibernate's pooled optimizer hands out the 50 ids ending at the value nextval returns,
+-- so the first value must sit 50 above the highest existing id.
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+SELECT setval('movies_seq', COALESCE((SELECT MAX(id) FROM movies), 0) + 50, false);
+SELECT setval('tv_shows_seq', COALESCE((SELECT MAX(id) FROM tv_shows), 0) + 50, false);
+SELECT setval('user_media_seq', COALESCE((SELECT MAX(id) FROM user_media), 0) + 50, false);
+
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER TABLE movies ALTER COLUMN id SET DEFAULT nextval('movies_seq');
+ALTER TABLE tv_shows ALTER COLUMN id SET DEFAULT nextval('tv_shows_seq');
+ALTER TABLE user_media ALTER COLUMN id SET DEFAULT nextval('user_media_seq');
@@ -0,0 +1,4 @@
+-- Existing rows were never refreshed and stay NULL, which makes them the first to be refreshed
+-- once TMDB reports a change to them.
+ALTER TABLE movies ADD COLUMN IF NOT EXISTS last_refreshed_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE tv_shows ADD COLUMN IF NOT EXISTS last_refreshed_at TIMESTAMP WITH TIME ZONE;
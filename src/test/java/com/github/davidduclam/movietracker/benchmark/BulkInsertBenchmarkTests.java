@@ -0,0 +1,116 @@
+package com.github.davidduclam.movietracker.benchmark;
+
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.model.MediaType;
+import com.github.davidduclam.movietracker.model.User;
+import com.github.davidduclam.movietracker.model.UserMedia;
+import com.github.davidduclam.movietracker.repository.UserMediaRepository;
+import com.github.davidduclam.movietracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the insert throughput of bulk watchlist writes through Hibernate with JDBC batching
+ * turned off (one statement per row) and on ({@code hibernate.jdbc.batch_size}). Runs against the
+ * in-memory test database, so it shows the saved statements rather than network round trips.
+ * Run with {@code mvn test -Dtest=BulkInsertBenchmarkTests -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@ActiveProfiles("test")
+@SpringBootTest
+class BulkInsertBenchmarkTests {
+
+    private static final int ROWS = 5_000;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMediaRepository userMediaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @Test
+    void jdbcBatchingRaisesBulkInsertThroughput() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        insert("warmup-unbatched", 1);
+        insert("warmup-batched", null);
+
+        long unbatchedNanos = 0;
+        long batchedNanos = 0;
+        long unbatchedStatements = 0;
+        long batchedStatements = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            statistics.clear();
+            unbatchedNanos += insert("unbatched-" + round, 1);
+            unbatchedStatements += statistics.getPrepareStatementCount();
+
+            statistics.clear();
+            batchedNanos += insert("batched-" + round, null);
+            batchedStatements += statistics.getPrepareStatementCount();
+        }
+
+        double unbatched = ROWS * ROUNDS / (unbatchedNanos / 1e9);
+        double batched = ROWS * ROUNDS / (batchedNanos / 1e9);
+        System.out.printf("Inserting %d watchlist rows per transaction, %d rounds:%n", ROWS, ROUNDS);
+        System.out.printf("  batch size 1:  %.0f rows/s, %d statements per round%n", unbatched, unbatchedStatements / ROUNDS);
+        System.out.printf("  batch size 50: %.0f rows/s, %d statements per round%n", batched, batchedStatements / ROUNDS);
+        assertThat(batchedStatements).isLessThan(unbatchedStatements);
+    }
+
+    /**
+     * Saves {@link #ROWS} watchlist entries for a new user in one transaction.
+     *
+     * @param username the user owning the entries
+     * @param batchSize the JDBC batch size for the session, or null for the configured one
+     * @return the elapsed time in nanoseconds
+     */
+    private long insert(String username, Integer batchSize) {
+        User user = new User();
+        user.setUsername(username);
+        User savedUser = userRepository.save(user);
+
+        List<UserMedia> rows = new ArrayList<>(ROWS);
+        for (long tmdbId = 0; tmdbId < ROWS; tmdbId++) {
+            UserMedia userMedia = new UserMedia();
+            userMedia.setUser(savedUser);
+            userMedia.setTmdbId(tmdbId);
+            userMedia.setMediaType(MediaType.MOVIE);
+            rows.add(userMedia);
+        }
+
+        long start = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            userMediaRepository.saveAll(rows);
+        });
+        return System.nanoTime() - start;
+    }
+}
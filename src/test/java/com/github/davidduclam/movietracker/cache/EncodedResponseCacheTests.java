@@ -0,0 +1,59 @@
+package com.github.davidduclam.movietracker.cache;
+
+import com.github.davidduclam.movietracker.dto.TrailerDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedResponseCacheTests {
+
+    private final EncodedResponseCache cache =
+            new EncodedResponseCache(JsonMapper.builder().build(), 100, new SimpleMeterRegistry());
+
+    @Test
+    void equalBodiesReuseTheEncodedBytes() {
+        EncodedResponseCache.EncodedResponse first = cache.get("movies:popular", List.of(new TrailerDTO("abc", "Trailer", "YouTube")));
+        EncodedResponseCache.EncodedResponse second = cache.get("movies:popular", List.of(new TrailerDTO("abc", "Trailer", "YouTube")));
+        EncodedResponseCache.EncodedResponse changed = cache.get("movies:popular", List.of(new TrailerDTO("xyz", "Trailer", "YouTube")));
+
+        assertThat(second.json()).isSameAs(first.json());
+        assertThat(changed.etag()).isNotEqualTo(first.etag());
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() {
+        EncodedResponseCache.EncodedResponse encoded = cache.get("movie:1", List.of(new TrailerDTO("abc", "Trailer", "YouTube")));
+
+        ResponseEntity<byte[]> response = encoded.toResponseEntity("W/\"other\", " + encoded.etag(), null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(encoded.etag());
+    }
+
+    @Test
+    void servesGzipVariantOnlyWhenAccepted() throws IOException {
+        EncodedResponseCache.EncodedResponse encoded = cache.get("movie:2", List.of(new TrailerDTO("abc", "Trailer", "YouTube")));
+
+        ResponseEntity<byte[]> gzip = encoded.toResponseEntity(null, "br, gzip");
+        ResponseEntity<byte[]> identity = encoded.toResponseEntity(null, "gzip;q=0");
+
+        assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(encoded.json());
+        }
+        assertThat(identity.getHeaders().containsHeader(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(new String(identity.getBody(), StandardCharsets.UTF_8)).contains("abc");
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.davidduclam.movietracker.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshAheadCacheTests {
+
+    private final RefreshAheadCache cache = new RefreshAheadCache();
+
+    @Test
+    void readsAreServedFromMemoryUntilRefreshed() {
+        AtomicInteger loads = new AtomicInteger();
+        RefreshAheadCache.Entry<List<Integer>> entry = cache.register("numbers", () -> List.of(loads.incrementAndGet()));
+
+        assertThat(entry.get()).containsExactly(1);
+        assertThat(entry.get()).containsExactly(1);
+
+        cache.refreshAll();
+
+        assertThat(entry.get()).containsExactly(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void failedRefreshKeepsLastGoodValue() {
+        AtomicInteger loads = new AtomicInteger();
+        RefreshAheadCache.Entry<String> entry = cache.register("flaky", () -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new IllegalStateException("upstream down");
+            }
+            return "first";
+        });
+
+        cache.refreshAll();
+        cache.refreshAll();
+
+        assertThat(entry.get()).isEqualTo("first");
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.davidduclam.movietracker.cache;
+
+import com.github.davidduclam.movietracker.dto.MovieSearchResultDTO;
+import com.github.davidduclam.movietracker.dto.SearchResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTests {
+
+    private final SearchResultCache cache = new SearchResultCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    @Test
+    void normalizesCaseWhitespaceAndUnicode() {
+        assertThat(SearchResultCache.normalize("  The   DARK\tKnight ")).isEqualTo("the dark knight");
+        assertThat(SearchResultCache.normalize("Ａｍéｌｉｅ")).isEqualTo(SearchResultCache.normalize("amélie"));
+    }
+
+    @Test
+    void equivalentQueriesShareOneEntryPerLanguage() {
+        List<String> upstreamQueries = new ArrayList<>();
+        List<SearchResultDTO> results = List.of(new MovieSearchResultDTO(1L, "movie", "Dune", null, null, 8.0));
+
+        cache.get("Dune", "en-US", query -> { upstreamQueries.add(query); return results; });
+        cache.get(" dune ", "en-US", query -> { upstreamQueries.add(query); return results; });
+        cache.get("DUNE", "fr-FR", query -> { upstreamQueries.add(query); return results; });
+
+        assertThat(upstreamQueries).containsExactly("dune", "dune");
+    }
+}
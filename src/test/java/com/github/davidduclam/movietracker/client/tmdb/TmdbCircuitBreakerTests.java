@@ -0,0 +1,103 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbCallRejectedException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbCircuitBreakerTests {
+
+    private final TmdbCircuitBreaker circuitBreaker =
+            new TmdbCircuitBreaker(true, 4, 4, 50, Duration.ofMillis(100), 1, new SimpleMeterRegistry());
+
+    @Test
+    void opensOnUpstreamFailuresAndFailsFast() {
+        succeed();
+        succeed();
+        fail(HttpStatus.BAD_GATEWAY);
+        fail(null);
+
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.OPEN);
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> circuitBreaker.execute("test", calls::incrementAndGet))
+                .isInstanceOfSatisfying(TmdbClientException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail(HttpStatus.NOT_FOUND);
+        }
+
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void closesAgainAfterASuccessfulTrialCall() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            fail(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Thread.sleep(150);
+
+        succeed();
+
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void localRejectionsAreNotTrialCalls() throws InterruptedException {
+        open();
+        Thread.sleep(150);
+
+        assertThatThrownBy(() -> circuitBreaker.execute("test", () -> {
+            throw new TmdbCallRejectedException("rate limited");
+        })).isInstanceOf(TmdbCallRejectedException.class);
+
+        // The rejection neither closed the circuit nor used up the only trial permit.
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.HALF_OPEN);
+        succeed();
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void anErrorDuringATrialCallReopensTheCircuit() throws InterruptedException {
+        open();
+        Thread.sleep(150);
+
+        assertThatThrownBy(() -> circuitBreaker.execute("test", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.OPEN);
+        Thread.sleep(150);
+        succeed();
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.CLOSED);
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            fail(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertThat(circuitBreaker.state()).isEqualTo(TmdbCircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        circuitBreaker.execute("test", () -> "ok");
+    }
+
+    private void fail(HttpStatus status) {
+        assertThatThrownBy(() -> circuitBreaker.execute("test", () -> {
+            throw new TmdbClientException("failed", status, new ResourceAccessException("upstream"));
+        })).isInstanceOf(TmdbClientException.class);
+    }
+}
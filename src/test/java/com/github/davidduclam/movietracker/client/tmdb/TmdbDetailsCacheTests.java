@@ -0,0 +1,67 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbDetailsCacheTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TmdbDetailsCache cache = new TmdbDetailsCache(100, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry);
+
+    @Test
+    void repeatedLookupIsServedFromCache() {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<TmdbMovieDTO> loader = () -> {
+            calls.incrementAndGet();
+            return new TmdbMovieDTO(1L, "Movie", null, null, null, null, null, null);
+        };
+
+        cache.getMovieDetails(1L, loader);
+        TmdbMovieDTO movie = cache.getMovieDetails(1L, loader);
+
+        assertThat(movie.title()).isEqualTo("Movie");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "tmdbMovieDetails").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void notFoundResponsesAreCached() {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<TmdbMovieDTO> loader = () -> {
+            calls.incrementAndGet();
+            throw new TmdbClientException("not found", HttpStatus.NOT_FOUND, null);
+        };
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cache.getMovieDetails(2L, loader))
+                    .isInstanceOfSatisfying(TmdbClientException.class,
+                            e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void otherFailuresAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<TmdbMovieDTO> loader = () -> {
+            calls.incrementAndGet();
+            throw new TmdbClientException("unavailable", HttpStatus.BAD_GATEWAY, null);
+        };
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cache.getMovieDetails(3L, loader)).isInstanceOf(TmdbClientException.class);
+        }
+        assertThat(calls).hasValue(2);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbHttpTransportTests {
+
+    @Test
+    void requestsGzipAndDecompressesResponses() throws Exception {
+        try (TmdbStubServer stub = TmdbStubServer.start(Duration.ZERO)) {
+            TmdbMovieDTO movie = stub.newClient(Duration.ofSeconds(5), false).fetchMovieDetails(42L);
+
+            assertThat(movie.title()).isEqualTo("Stub movie 42");
+            assertThat(stub.gzipResponseCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void slowResponsesFailAtTheReadTimeout() throws Exception {
+        try (TmdbStubServer stub = TmdbStubServer.start(Duration.ofSeconds(2))) {
+            TmdbClient tmdbClient = stub.newClient(Duration.ofMillis(200), false);
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> tmdbClient.fetchMovieDetails(42L)).isInstanceOf(TmdbClientException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        }
+    }
+}
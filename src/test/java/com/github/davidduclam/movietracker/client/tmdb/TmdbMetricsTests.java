@@ -0,0 +1,45 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbMetricsTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void recordsLatencyResponseSizeAndInFlightPerAction() throws Exception {
+        try (TmdbStubServer stub = TmdbStubServer.start(Duration.ofMillis(20))) {
+            stub.newClient(Duration.ofSeconds(5), false, meterRegistry).fetchMovieDetails(42L);
+
+            assertThat(meterRegistry.get("tmdb.client.requests")
+                    .tags("action", "fetch movie details", "outcome", "2xx").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("tmdb.client.response.size")
+                    .tag("action", "fetch movie details").summary().totalAmount()).isGreaterThan(100);
+            assertThat(meterRegistry.get("tmdb.client.in.flight")
+                    .tag("action", "fetch movie details").gauge().value()).isZero();
+        }
+    }
+
+    @Test
+    void tagsServerErrorsAndTimeoutsByOutcome() throws Exception {
+        try (TmdbStubServer failing = TmdbStubServer.builder().errorRate(1).start();
+             TmdbStubServer slow = TmdbStubServer.start(Duration.ofSeconds(2))) {
+            assertThatThrownBy(() -> failing.newClient(Duration.ofSeconds(5), false, meterRegistry).fetchTvShowDetails(7L))
+                    .isInstanceOf(TmdbClientException.class);
+            assertThatThrownBy(() -> slow.newClient(Duration.ofMillis(200), false, meterRegistry).fetchTvShowDetails(7L))
+                    .isInstanceOf(TmdbClientException.class);
+
+            assertThat(meterRegistry.get("tmdb.client.requests")
+                    .tags("action", "fetch tv show details", "outcome", "5xx").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("tmdb.client.requests")
+                    .tags("action", "fetch tv show details", "outcome", "timeout").timer().count()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbCallRejectedException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbRateLimiterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TmdbRateLimiter rateLimiter = new TmdbRateLimiter(20, 2, meterRegistry);
+
+    @Test
+    void queuesCallersOnceTheBurstIsUsed() {
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.acquire("test", deadlineIn(Duration.ofSeconds(2)));
+        }
+
+        // Two permits are available at once, the next two are 50 ms apart at 20 per second.
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(90));
+        assertThat(meterRegistry.get("tmdb.ratelimiter.wait").timer().count()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsCallersThatCannotBeServedBeforeTheirDeadline() {
+        rateLimiter.acquire("test", deadlineIn(Duration.ofSeconds(1)));
+        rateLimiter.acquire("test", deadlineIn(Duration.ofSeconds(1)));
+
+        assertThatThrownBy(() -> rateLimiter.acquire("test", deadlineIn(Duration.ofMillis(10))))
+                .isInstanceOfSatisfying(TmdbClientException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(meterRegistry.get("tmdb.ratelimiter.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void pauseHoldsBackEveryCaller() {
+        rateLimiter.pauseFor(Duration.ofMillis(200));
+
+        long start = System.nanoTime();
+        rateLimiter.acquire("test", deadlineIn(Duration.ofSeconds(2)));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(180));
+    }
+
+    @Test
+    void aWaiterRejectedByAPauseDoesNotDelayTheNextCaller() throws Exception {
+        SimpleMeterRegistry limiterMeters = new SimpleMeterRegistry();
+        TmdbRateLimiter limiter = new TmdbRateLimiter(5, 1, limiterMeters);
+        limiter.acquire("test", deadlineIn(Duration.ofSeconds(1)));
+
+        // The second caller reserves the next permit, due in 200 ms, then a pause pushes it past its deadline.
+        AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire("test", deadlineIn(Duration.ofMillis(300)));
+            } catch (Throwable e) {
+                waiterFailure.set(e);
+            }
+        });
+        while (limiterMeters.get("tmdb.ratelimiter.waiting").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        long pauseStart = System.nanoTime();
+        limiter.pauseFor(Duration.ofMillis(600));
+        waiter.join();
+
+        limiter.acquire("test", deadlineIn(Duration.ofSeconds(2)));
+
+        assertThat(waiterFailure.get()).isInstanceOf(TmdbCallRejectedException.class);
+        // Served one permit interval (200 ms) after the pause ends, not two: the rejected waiter gave its permit back.
+        assertThat(Duration.ofNanos(System.nanoTime() - pauseStart)).isLessThan(Duration.ofMillis(900));
+    }
+
+    private static long deadlineIn(Duration duration) {
+        return System.nanoTime() + duration.toNanos();
+    }
+}
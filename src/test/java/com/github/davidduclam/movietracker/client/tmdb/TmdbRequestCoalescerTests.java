@@ -0,0 +1,113 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbRequestCoalescerTests {
+
+    private static final int CALLERS = 50;
+
+    @Test
+    void concurrentIdenticalCallsShareOneUpstreamRequest() throws Exception {
+        TmdbRequestCoalescer coalescer = new TmdbRequestCoalescer(true);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> coalescer.execute("fetch movie details[1]", () -> {
+                    upstreamCalls.incrementAndGet();
+                    await(release);
+                    return "movie";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("movie");
+            }
+        }
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void concurrentCallersShareTheFailure() throws Exception {
+        TmdbRequestCoalescer coalescer = new TmdbRequestCoalescer(true);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> coalescer.<String>execute("search multi[dune]", () -> {
+                    upstreamCalls.incrementAndGet();
+                    await(release);
+                    throw new IllegalStateException("upstream failed");
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThatThrownBy(result::get)
+                        .isInstanceOf(ExecutionException.class)
+                        .cause().hasMessage("upstream failed");
+            }
+        }
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void waitingCallersAreReleasedWhenTheCallThrowsAnError() throws Exception {
+        TmdbRequestCoalescer coalescer = new TmdbRequestCoalescer(true);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> coalescer.<String>execute("fetch tv show details[7]", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new StackOverflowError("upstream blew up");
+            }));
+            await(leaderStarted);
+            Future<String> waiter = executor.submit(() -> coalescer.<String>execute("fetch tv show details[7]", () -> "not called"));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertThatThrownBy(leader::get).cause().isInstanceOf(StackOverflowError.class);
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isInstanceOf(StackOverflowError.class).hasMessage("upstream blew up");
+        }
+    }
+
+    @Test
+    void disabledCoalescerCallsUpstreamEveryTime() {
+        TmdbRequestCoalescer coalescer = new TmdbRequestCoalescer(false);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        coalescer.execute("fetch popular movies[]", upstreamCalls::incrementAndGet);
+        coalescer.execute("fetch popular movies[]", upstreamCalls::incrementAndGet);
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbRetryPolicyTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TmdbRetryPolicy retryPolicy = new TmdbRetryPolicy(new TmdbRateLimiter(1000, 100, meterRegistry),
+            meterRegistry, 3, Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofSeconds(2));
+
+    @Test
+    void retriesTooManyRequestsAfterRetryAfter() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        long start = System.nanoTime();
+        String result = retryPolicy.execute("test", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new TmdbClientException("throttled", HttpStatus.TOO_MANY_REQUESTS, Duration.ofMillis(300), null);
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(2);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(280));
+        assertThat(meterRegistry.get("tmdb.retries").tag("reason", "429").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryPolicy.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new TmdbClientException("unavailable", HttpStatus.BAD_GATEWAY, null);
+        })).isInstanceOf(TmdbClientException.class);
+
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryPolicy.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new TmdbClientException("not found", HttpStatus.NOT_FOUND, null);
+        })).isInstanceOf(TmdbClientException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void doesNotWaitOutARetryAfterBeyondTheDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryPolicy.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new TmdbClientException("throttled", HttpStatus.TOO_MANY_REQUESTS, Duration.ofMinutes(1), null);
+        })).isInstanceOfSatisfying(TmdbClientException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        assertThat(attempts).hasValue(1);
+    }
+}
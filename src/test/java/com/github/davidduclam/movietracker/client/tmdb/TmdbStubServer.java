@@ -0,0 +1,390 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the TMDB API, used by tests that exercise the real HTTP path of {@link TmdbClient}
+ * and by the offline load tests. Every response is delayed by a latency, plus optional random jitter,
+ * to simulate the upstream round trip. Detail lookups answer for any id, list endpoints return a page
+ * of movies or shows. Responses are gzip-compressed when the request accepts it.
+ *
+ * <p>By default the bodies are small and generated. With {@link Builder#fixtures(boolean)} the stub
+ * serves the recorded TMDB responses under {@code src/test/resources/tmdb} instead, with the requested
+ * id filled into the details. A share of requests can fail with a 500, or with a 429 carrying a
+ * {@code Retry-After} header.
+ *
+ * <p>The change feeds ({@code /movie/changes} and {@code /tv/changes}) list the ids given with
+ * {@link Builder#movieChanges(Collection)} and {@link Builder#tvShowChanges(Collection)}, 100 per page,
+ * whatever the requested dates.
+ */
+public class TmdbStubServer implements AutoCloseable {
+
+    private static final Pattern DETAILS = Pattern.compile("/(movie|tv)/(\\d+)");
+    private static final Pattern PAGE = Pattern.compile("(?:^|&)page=(\\d+)");
+    private static final Pattern START_DATE = Pattern.compile("(?:^|&)start_date=([0-9-]+)");
+    private static final int CHANGES_PAGE_SIZE = 100;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final double throttleRate;
+    private final Duration retryAfter;
+    private final Fixtures fixtures;
+    private final List<Long> movieChanges;
+    private final List<Long> tvShowChanges;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger gzipResponseCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger throttledCount = new AtomicInteger();
+    private final List<String> changesStartDates = new CopyOnWriteArrayList<>();
+    private volatile boolean failingDetails;
+
+    private TmdbStubServer(Builder builder) throws IOException {
+        this.latency = builder.latency;
+        this.jitter = builder.jitter;
+        this.errorRate = builder.errorRate;
+        this.throttleRate = builder.throttleRate;
+        this.retryAfter = builder.retryAfter;
+        this.fixtures = builder.fixtures ? Fixtures.load() : null;
+        this.movieChanges = builder.movieChanges;
+        this.tvShowChanges = builder.tvShowChanges;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public static TmdbStubServer start(Duration latency) throws IOException {
+        return builder().latency(latency).start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a {@link TmdbClient} pointed at this stub, on a transport with the given read timeout
+     * for every kind of call.
+     */
+    public TmdbClient newClient(Duration readTimeout, boolean virtualThreads) {
+        return newClient(readTimeout, virtualThreads, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates a {@link TmdbClient} pointed at this stub that publishes its metrics to the given registry.
+     */
+    public TmdbClient newClient(Duration readTimeout, boolean virtualThreads, MeterRegistry meterRegistry) {
+        TmdbHttpTransport transport = new TmdbHttpTransport(HttpClient.Version.HTTP_1_1, Duration.ofSeconds(1), true, readTimeout, readTimeout, readTimeout, virtualThreads);
+        TmdbRetryPolicy retryPolicy = new TmdbRetryPolicy(new TmdbRateLimiter(1000, 1000, meterRegistry), meterRegistry,
+                1, Duration.ofMillis(50), Duration.ofSeconds(1), Duration.ofSeconds(10));
+        return new TmdbClient(RestClient.builder(), transport,
+                new TmdbDetailsCache(100, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry),
+                new TmdbRequestCoalescer(true),
+                retryPolicy,
+                new TmdbCircuitBreaker(false, 20, 10, 50, Duration.ofSeconds(30), 3, meterRegistry),
+                new TmdbMetrics(meterRegistry),
+                baseUrl(),
+                "test-token");
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    public int gzipResponseCount() {
+        return gzipResponseCount.get();
+    }
+
+    /** Number of requests answered with an injected 500. */
+    public int errorCount() {
+        return errorCount.get();
+    }
+
+    /** Number of requests answered with an injected 429. */
+    public int throttledCount() {
+        return throttledCount.get();
+    }
+
+    /**
+     * Makes every details request answer with a 500 while set, as during a TMDB outage; the change
+     * feeds keep working.
+     */
+    public void failDetails(boolean failingDetails) {
+        this.failingDetails = failingDetails;
+    }
+
+    /** The {@code start_date} of every change feed request, in order. */
+    public List<String> changesStartDates() {
+        return List.copyOf(changesStartDates);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            long jitterNanos = jitter.isZero() ? 0 : random.nextLong(jitter.toNanos() + 1);
+            Thread.sleep(latency.plusNanos(jitterNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        double fault = random.nextDouble();
+        if (fault < throttleRate) {
+            throttledCount.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfter.toSeconds()));
+            respond(exchange, 429, "{\"status_code\":25,\"status_message\":\"Your request count is over the allowed limit.\"}");
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        boolean changesRequest = path.endsWith("/changes");
+        if (fault < throttleRate + errorRate || (failingDetails && !changesRequest)) {
+            errorCount.incrementAndGet();
+            respond(exchange, 500, "{\"status_code\":11,\"status_message\":\"Internal error: Something went wrong.\"}");
+            return;
+        }
+
+        if (changesRequest) {
+            Matcher startDate = START_DATE.matcher(Objects.toString(exchange.getRequestURI().getRawQuery(), ""));
+            changesStartDates.add(startDate.find() ? startDate.group(1) : "");
+        }
+        String body = switch (path) {
+            case "/movie/changes" -> changes(movieChanges, exchange.getRequestURI().getRawQuery());
+            case "/tv/changes" -> changes(tvShowChanges, exchange.getRequestURI().getRawQuery());
+            default -> fixtures == null ? route(path) : fixtures.route(path);
+        };
+        if (body == null) {
+            respond(exchange, 404, "{\"status_code\":34,\"status_message\":\"Not found\"}");
+        } else {
+            respond(exchange, 200, body);
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            bytes = gzip(bytes);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            gzipResponseCount.incrementAndGet();
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String route(String path) {
+        Matcher details = DETAILS.matcher(path);
+        if (details.matches()) {
+            long id = Long.parseLong(details.group(2));
+            return details.group(1).equals("movie") ? movie(id) : tvShow(id);
+        }
+        return switch (path) {
+            case "/movie/popular", "/movie/top_rated", "/movie/upcoming" -> page(TmdbStubServer::movie);
+            case "/tv/popular", "/tv/top_rated" -> page(TmdbStubServer::tvShow);
+            case "/search/multi" -> "{\"page\":1,\"results\":[" + movieResult(1) + "],\"total_pages\":1,\"total_results\":1}";
+            default -> null;
+        };
+    }
+
+    private static String changes(List<Long> changedIds, String query) {
+        Matcher pageParameter = PAGE.matcher(query == null ? "" : query);
+        int page = pageParameter.find() ? Integer.parseInt(pageParameter.group(1)) : 1;
+        int totalPages = Math.max(1, (changedIds.size() + CHANGES_PAGE_SIZE - 1) / CHANGES_PAGE_SIZE);
+        String results = changedIds.stream()
+                .skip((long) (page - 1) * CHANGES_PAGE_SIZE)
+                .limit(CHANGES_PAGE_SIZE)
+                .map(id -> "{\"id\":" + id + ",\"adult\":false}")
+                .collect(Collectors.joining(","));
+        return "{\"results\":[" + results + "],\"page\":" + page + ",\"total_pages\":" + totalPages
+                + ",\"total_results\":" + changedIds.size() + "}";
+    }
+
+    private static String page(LongFunction<String> item) {
+        String results = IntStream.rangeClosed(1, 20).mapToObj(item::apply).collect(Collectors.joining(","));
+        return "{\"page\":1,\"results\":[" + results + "],\"total_pages\":1,\"total_results\":20}";
+    }
+
+    private static String movie(long id) {
+        return """
+                {"id":%d,"title":"Stub movie %d","release_date":"2020-01-01","poster_path":"/p%d.jpg",\
+                "backdrop_path":"/b%d.jpg","overview":"Overview %d","vote_average":7.5,"videos":{"results":[%s]}}"""
+                .formatted(id, id, id, id, id, video(id));
+    }
+
+    private static String tvShow(long id) {
+        return """
+                {"id":%d,"name":"Stub show %d","first_air_date":"2020-01-01","poster_path":"/p%d.jpg",\
+                "backdrop_path":"/b%d.jpg","overview":"Overview %d","vote_average":7.5,"videos":{"results":[%s]}}"""
+                .formatted(id, id, id, id, id, video(id));
+    }
+
+    private static String movieResult(long id) {
+        return """
+                {"id":%d,"media_type":"movie","title":"Stub movie %d","release_date":"2020-01-01",\
+                "poster_path":"/p%d.jpg","vote_average":7.5}""".formatted(id, id, id);
+    }
+
+    private static String video(long id) {
+        return "{\"name\":\"Trailer\",\"official\":true,\"key\":\"k" + id + "\",\"site\":\"YouTube\",\"type\":\"Trailer\"}";
+    }
+
+    /**
+     * Recorded TMDB responses. Details are served from one template per media type with the
+     * requested id filled in; lists and search always return the same page.
+     */
+    private record Fixtures(ObjectNode movieDetails, ObjectNode tvShowDetails, String movieList, String tvShowList,
+                            String searchMulti) {
+
+        private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+        static Fixtures load() throws IOException {
+            return new Fixtures(
+                    (ObjectNode) JSON_MAPPER.readTree(read("movie-details.json")),
+                    (ObjectNode) JSON_MAPPER.readTree(read("tv-details.json")),
+                    read("movie-list.json"),
+                    read("tv-list.json"),
+                    read("search-multi.json"));
+        }
+
+        private static String read(String name) throws IOException {
+            try (InputStream in = TmdbStubServer.class.getResourceAsStream("/tmdb/" + name)) {
+                if (in == null) {
+                    throw new IOException("Missing TMDB fixture " + name);
+                }
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+
+        String route(String path) {
+            Matcher details = DETAILS.matcher(path);
+            if (details.matches()) {
+                ObjectNode body = (details.group(1).equals("movie") ? movieDetails : tvShowDetails).deepCopy();
+                body.put("id", Long.parseLong(details.group(2)));
+                return JSON_MAPPER.writeValueAsString(body);
+            }
+            return switch (path) {
+                case "/movie/popular", "/movie/top_rated", "/movie/upcoming" -> movieList;
+                case "/tv/popular", "/tv/top_rated" -> tvShowList;
+                case "/search/multi" -> searchMulti;
+                default -> null;
+            };
+        }
+    }
+
+    public static final class Builder {
+        private Duration latency = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private double errorRate;
+        private double throttleRate;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private boolean fixtures;
+        private List<Long> movieChanges = List.of();
+        private List<Long> tvShowChanges = List.of();
+
+        private Builder() {
+        }
+
+        /** Fixed delay before every response. */
+        public Builder latency(Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /** Upper bound of a random delay added on top of the latency. */
+        public Builder jitter(Duration jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /** Share of requests, between 0 and 1, answered with a 500. */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /** Share of requests, between 0 and 1, answered with a 429. */
+        public Builder throttleRate(double throttleRate) {
+            this.throttleRate = throttleRate;
+            return this;
+        }
+
+        /** Value of the {@code Retry-After} header sent with injected 429s. */
+        public Builder retryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /** Whether to serve the recorded TMDB responses instead of generated ones. */
+        public Builder fixtures(boolean fixtures) {
+            this.fixtures = fixtures;
+            return this;
+        }
+
+        /** Movie ids listed by the movie change feed. */
+        public Builder movieChanges(Collection<Long> movieChanges) {
+            this.movieChanges = List.copyOf(movieChanges);
+            return this;
+        }
+
+        /** TV show ids listed by the TV show change feed. */
+        public Builder tvShowChanges(Collection<Long> tvShowChanges) {
+            this.tvShowChanges = List.copyOf(tvShowChanges);
+            return this;
+        }
+
+        public TmdbStubServer start() throws IOException {
+            return new TmdbStubServer(this);
+        }
+    }
+}
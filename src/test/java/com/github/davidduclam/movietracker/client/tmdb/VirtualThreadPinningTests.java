@@ -0,0 +1,53 @@
+package com.github.davidduclam.movietracker.client.tmdb;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs TMDB lookups on virtual threads against a slow local stub while JFR records
+ * {@code jdk.VirtualThreadPinned} events, and fails if any pinned section involves our code,
+ * e.g. a {@code synchronized} block or cache compute held across the HTTP round trip.
+ */
+class VirtualThreadPinningTests {
+
+    @Test
+    void tmdbLookupsDoNotPinVirtualThreads(@TempDir Path dir) throws Exception {
+        List<RecordedEvent> pinned;
+        try (TmdbStubServer stub = TmdbStubServer.start(Duration.ofMillis(50));
+             Recording recording = new Recording()) {
+            TmdbClient tmdbClient = stub.newClient(Duration.ofSeconds(5), true);
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(10)).withStackTrace();
+            recording.start();
+
+            // Bounded wait: once every carrier is pinned the lookups deadlock instead of emitting events.
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            IntStream.range(0, 50).forEach(i -> executor.submit(() -> tmdbClient.fetchMovieDetails((long) i % 10)));
+            IntStream.range(0, 20).forEach(i -> executor.submit(() -> tmdbClient.searchMulti("dune", "en-US")));
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).as("lookups finished").isTrue();
+
+            recording.stop();
+            Path file = dir.resolve("pinning.jfr");
+            recording.dump(file);
+            pinned = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                            .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("com.github.davidduclam")))
+                    .toList();
+        }
+
+        assertThat(pinned).isEmpty();
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.davidduclam.movietracker.loadtest;
+
+import com.github.davidduclam.movietracker.MovieTrackerApplication;
+import com.github.davidduclam.movietracker.client.tmdb.TmdbStubServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a mix of search, details, popular-list and watchlist traffic at the application, started
+ * against a local TMDB stub that serves recorded responses with latency, 500s and 429s, and reports
+ * throughput and p50 / p99 / p99.9 latency per endpoint. Needs no network access or TMDB token.
+ *
+ * <p>Run with {@code mvn -Ploadtest test}. Tune it with {@code -Dloadtest.requests},
+ * {@code -Dloadtest.concurrency}, {@code -Dloadtest.tmdb-latency-ms}, {@code -Dloadtest.tmdb-jitter-ms},
+ * {@code -Dloadtest.tmdb-error-rate} and {@code -Dloadtest.tmdb-throttle-rate}. Any
+ * {@code -Dloadtest.app.<property>=<value>} is passed to the application as {@code --<property>=<value>}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class TrafficMixLoadTests {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 5000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+    private static final Duration TMDB_LATENCY = Duration.ofMillis(Long.getLong("loadtest.tmdb-latency-ms", 60));
+    private static final Duration TMDB_JITTER = Duration.ofMillis(Long.getLong("loadtest.tmdb-jitter-ms", 60));
+    private static final double TMDB_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.tmdb-error-rate", "0.01"));
+    private static final double TMDB_THROTTLE_RATE = Double.parseDouble(System.getProperty("loadtest.tmdb-throttle-rate", "0.002"));
+
+    private static final int USERS = 20;
+    private static final int MOVIE_IDS = 2_000;
+    private static final int TV_SHOW_IDS = 500;
+    private static final List<String> QUERIES = List.of("star", "night", "river", "king", "winter", "city", "dark",
+            "house", "island", "secret", "love", "war", "summer", "road", "girl", "the last", "return of", "dark city",
+            "winter king", "secret island");
+    private static final Pattern USER_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    /** Endpoints of the mix, with their share of the traffic in percent. */
+    private enum Endpoint {
+        SEARCH(30), MOVIE_DETAILS(25), TV_SHOW_DETAILS(10), POPULAR_MOVIES(15), WATCHLIST_READ(12), WATCHLIST_ADD(8);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+
+        static Endpoint pick(int percent) {
+            int cumulative = 0;
+            for (Endpoint endpoint : values()) {
+                cumulative += endpoint.weight;
+                if (percent < cumulative) {
+                    return endpoint;
+                }
+            }
+            return WATCHLIST_ADD;
+        }
+    }
+
+    private record Sample(long nanos, int status) {}
+
+    @Test
+    void trafficMixAgainstTmdbStub() throws Exception {
+        try (TmdbStubServer stub = TmdbStubServer.builder()
+                .latency(TMDB_LATENCY)
+                .jitter(TMDB_JITTER)
+                .errorRate(TMDB_ERROR_RATE)
+                .throttleRate(TMDB_THROTTLE_RATE)
+                .fixtures(true)
+                .start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieTrackerApplication.class)
+                     .profiles("test")
+                     .run(applicationArgs(stub));
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<Long> userIds = createUsers(client, baseUrl);
+
+            Map<Endpoint, Queue<Sample>> samples = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                samples.put(endpoint, new ConcurrentLinkedQueue<>());
+            }
+            AtomicInteger transportFailures = new AtomicInteger();
+            Semaphore permits = new Semaphore(CONCURRENCY);
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    Endpoint endpoint = Endpoint.pick(ThreadLocalRandom.current().nextInt(100));
+                    HttpRequest request = request(endpoint, baseUrl, userIds);
+                    permits.acquire();
+                    executor.submit(() -> {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            samples.get(endpoint).add(new Sample(System.nanoTime() - sent, response.statusCode()));
+                        } catch (Exception e) {
+                            transportFailures.incrementAndGet();
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            report(samples, seconds, stub);
+            assertThat(transportFailures).hasValue(0);
+            // Injected TMDB failures that outlast the retries surface as 5xx, so only their share is bounded.
+            samples.forEach((endpoint, endpointSamples) -> {
+                long failed = endpointSamples.stream().filter(sample -> sample.status() >= 500).count();
+                assertThat(endpointSamples).as("responses for %s", endpoint).isNotEmpty();
+                assertThat(failed).as("5xx responses for %s", endpoint).isLessThan(Math.max(1, endpointSamples.size() / 20));
+            });
+        }
+    }
+
+    private static String[] applicationArgs(TmdbStubServer stub) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--tmdb.base-url=" + stub.baseUrl(),
+                "--logging.level.root=WARN",
+                "--sql.statement-budget.fail-on-exceed=false"));
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("loadtest.app."))
+                .sorted()
+                .forEach(name -> args.add("--" + name.substring("loadtest.app.".length()) + "=" + System.getProperty(name)));
+        return args.toArray(String[]::new);
+    }
+
+    private static List<Long> createUsers(HttpClient client, String baseUrl) throws Exception {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            HttpResponse<String> response = client.send(jsonRequest(baseUrl + "/users", "POST",
+                    "{\"username\":\"loadtest-" + i + "\"}"), HttpResponse.BodyHandlers.ofString());
+            Matcher id = USER_ID.matcher(response.body());
+            assertThat(id.find()).as("user id in %s", response.body()).isTrue();
+            userIds.add(Long.parseLong(id.group(1)));
+        }
+        return userIds;
+    }
+
+    private static HttpRequest request(Endpoint endpoint, String baseUrl, List<Long> userIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = userIds.get(random.nextInt(userIds.size()));
+        return switch (endpoint) {
+            case SEARCH -> get(baseUrl + "/search/multi?query="
+                    + URLEncoder.encode(QUERIES.get(random.nextInt(QUERIES.size())), StandardCharsets.UTF_8));
+            case MOVIE_DETAILS -> get(baseUrl + "/movies/" + (1 + random.nextInt(MOVIE_IDS)));
+            case TV_SHOW_DETAILS -> get(baseUrl + "/shows/" + (1 + random.nextInt(TV_SHOW_IDS)));
+            case POPULAR_MOVIES -> get(baseUrl + "/movies/popular");
+            case WATCHLIST_READ -> get(baseUrl + "/users/" + userId + "/media");
+            case WATCHLIST_ADD -> jsonRequest(baseUrl + "/users/" + userId + "/media", "POST",
+                    "{\"tmdbId\":" + (1 + random.nextInt(MOVIE_IDS)) + ",\"mediaType\":\"MOVIE\"}");
+        };
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).header("Accept-Encoding", "gzip").build();
+    }
+
+    private static HttpRequest jsonRequest(String uri, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void report(Map<Endpoint, Queue<Sample>> samples, double seconds, TmdbStubServer stub) {
+        int total = samples.values().stream().mapToInt(Queue::size).sum();
+        System.out.printf("%d requests, %d concurrent clients, TMDB stub %d-%d ms, %.1f%% 500s, %.1f%% 429s%n",
+                total, CONCURRENCY, TMDB_LATENCY.toMillis(), TMDB_LATENCY.plus(TMDB_JITTER).toMillis(),
+                TMDB_ERROR_RATE * 100, TMDB_THROTTLE_RATE * 100);
+        System.out.printf("%-16s %8s %8s %9s %9s %9s  %s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "statuses");
+        samples.forEach((endpoint, endpointSamples) -> {
+            long[] nanos = endpointSamples.stream().mapToLong(Sample::nanos).sorted().toArray();
+            Map<Integer, Long> statuses = endpointSamples.stream()
+                    .collect(Collectors.groupingBy(Sample::status, TreeMap::new, Collectors.counting()));
+            System.out.printf("%-16s %8d %8.1f %9.1f %9.1f %9.1f  %s%n", endpoint, nanos.length, nanos.length / seconds,
+                    percentile(nanos, 0.50), percentile(nanos, 0.99), percentile(nanos, 0.999), statuses);
+        });
+        System.out.printf("total: %.1f req/s over %.1f s; TMDB stub saw %d requests, injected %d 500s and %d 429s%n",
+                total / seconds, seconds, stub.requestCount(), stub.errorCount(), stub.throttledCount());
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.davidduclam.movietracker.loadtest;
+
+import com.github.davidduclam.movietracker.MovieTrackerApplication;
+import com.github.davidduclam.movietracker.client.tmdb.TmdbStubServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares request throughput of {@code GET /movies/{tmdbId}} with virtual threads on and off,
+ * against a local TMDB stub that answers after a fixed delay. Every request uses a distinct id so
+ * each one reaches the stub. Run with {@code mvn test -Dtest=VirtualThreadLoadTests -Dloadtest=true}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTests {
+
+    private static final Duration TMDB_LATENCY = Duration.ofMillis(100);
+    private static final int PLATFORM_THREADS = 50;
+    private static final int CONCURRENCY = 400;
+    private static final int REQUESTS = 2000;
+
+    @Test
+    void virtualThreadsRaiseThroughputOnSlowUpstream() throws Exception {
+        try (TmdbStubServer stub = TmdbStubServer.start(TMDB_LATENCY)) {
+            double platform = measure(stub, false, 1_000_000);
+            double virtual = measure(stub, true, 2_000_000);
+
+            System.out.printf("GET /movies/{id} with %d ms TMDB latency, %d concurrent clients:%n",
+                    TMDB_LATENCY.toMillis(), CONCURRENCY);
+            System.out.printf("  platform threads (max %d): %.0f req/s%n", PLATFORM_THREADS, platform);
+            System.out.printf("  virtual threads:           %.0f req/s%n", virtual);
+            assertThat(virtual).isGreaterThan(platform);
+        }
+    }
+
+    private static double measure(TmdbStubServer stub, boolean virtualThreads, long firstId) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieTrackerApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--tmdb.base-url=" + stub.baseUrl(),
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--logging.level.root=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return run("http://127.0.0.1:" + port + "/movies/", firstId);
+        }
+    }
+
+    private static double run(String baseUrl, long firstId) throws InterruptedException {
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                URI uri = URI.create(baseUrl + (firstId + i));
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertThat(failures).hasValue(0);
+        return REQUESTS / seconds;
+    }
+}
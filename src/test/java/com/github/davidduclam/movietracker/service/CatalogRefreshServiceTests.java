@@ -0,0 +1,169 @@
+package com.github.davidduclam.movietracker.service;
+
+import com.github.davidduclam.movietracker.cache.RefreshAheadCache;
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.client.tmdb.TmdbStubServer;
+import com.github.davidduclam.movietracker.model.Movie;
+import com.github.davidduclam.movietracker.model.TvShow;
+import com.github.davidduclam.movietracker.repository.CatalogRefreshRepository;
+import com.github.davidduclam.movietracker.repository.MovieRepository;
+import com.github.davidduclam.movietracker.repository.TvShowRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class CatalogRefreshServiceTests {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TvShowRepository tvShowRepository;
+
+    @Autowired
+    private CatalogRefreshRepository catalogRefreshRepository;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @Test
+    void refreshesOnlyStoredTitlesThatChanged() throws Exception {
+        Instant longAgo = Instant.now().minus(Duration.ofDays(2));
+        LongStream.rangeClosed(10_001, 10_010).forEach(tmdbId -> storeMovie(tmdbId, longAgo));
+        storeMovie(10_011, Instant.now());
+        storeTvShow(10_001, null);
+        storeTvShow(10_002, longAgo);
+
+        // 150 unknown ids push the movie changes onto a second page.
+        List<Long> movieChanges = new ArrayList<>(List.of(10_001L, 10_002L, 10_003L, 10_011L));
+        LongStream.range(20_000, 20_150).forEach(movieChanges::add);
+        try (TmdbStubServer stub = TmdbStubServer.builder()
+                .movieChanges(movieChanges)
+                .tvShowChanges(List.of(10_001L, 20_000L))
+                .start()) {
+            CatalogRefreshService refreshService = refreshService(stub, 2000);
+
+            CatalogRefreshService.RefreshSummary summary = refreshService.refresh();
+
+            assertThat(summary.movies()).isEqualTo(new CatalogRefreshService.RefreshOutcome(154, 3, 3, 0, 0, false));
+            assertThat(summary.tvShows()).isEqualTo(new CatalogRefreshService.RefreshOutcome(2, 1, 1, 0, 0, false));
+            // Two pages of movie changes, one of TV show changes, and one details request per refreshed title.
+            assertThat(stub.requestCount()).isEqualTo(3 + 4);
+            assertThat(movieRepository.findByTmdbId(10_001L)).get().satisfies(movie -> {
+                assertThat(movie.getVoteAverage()).isEqualTo(7.5);
+                assertThat(movie.getPosterPath()).isEqualTo("/p10001.jpg");
+                assertThat(movie.getLastRefreshedAt()).isAfter(longAgo);
+            });
+            assertThat(movieRepository.findByTmdbId(10_004L)).get().extracting(Movie::getVoteAverage).isEqualTo(1.0);
+            assertThat(movieRepository.findByTmdbId(10_011L)).get().extracting(Movie::getVoteAverage).isEqualTo(1.0);
+            assertThat(tvShowRepository.findByTmdbId(10_001L)).get().extracting(TvShow::getTitle).isEqualTo("Stub show 10001");
+            assertThat(tvShowRepository.findByTmdbId(10_002L)).get().extracting(TvShow::getVoteAverage).isEqualTo(1.0);
+
+            // Titles refreshed by the first run are not due again yet.
+            assertThat(refreshService.refresh().movies().due()).isZero();
+        }
+    }
+
+    @Test
+    void spreadsABacklogOverSeveralRuns() throws Exception {
+        Instant longAgo = Instant.now().minus(Duration.ofDays(2));
+        List<Long> changed = LongStream.rangeClosed(10_101, 10_105).boxed().toList();
+        changed.forEach(tmdbId -> storeMovie(tmdbId, longAgo.plusSeconds(tmdbId)));
+        try (TmdbStubServer stub = TmdbStubServer.builder().movieChanges(changed).start()) {
+            CatalogRefreshService refreshService = refreshService(stub, 3);
+
+            CatalogRefreshService.RefreshOutcome first = refreshService.refresh().movies();
+            CatalogRefreshService.RefreshOutcome second = refreshService.refresh().movies();
+
+            assertThat(first.refreshed()).isEqualTo(3);
+            assertThat(first.backlogged()).isTrue();
+            assertThat(second.refreshed()).isEqualTo(2);
+            assertThat(second.backlogged()).isFalse();
+            // Least recently refreshed first.
+            assertThat(movieRepository.findByTmdbId(10_101L).orElseThrow().getLastRefreshedAt())
+                    .isBefore(movieRepository.findByTmdbId(10_105L).orElseThrow().getLastRefreshedAt());
+        }
+    }
+
+    @Test
+    void ordersDueTitlesAcrossLookupChunks() throws Exception {
+        storeMovie(10_301, Instant.now().minus(Duration.ofDays(2)));
+        storeMovie(21_500, null);
+        // Over a thousand changed ids, so the two stored movies are looked up in different chunks.
+        List<Long> changed = new ArrayList<>(List.of(10_301L));
+        LongStream.rangeClosed(20_301, 21_500).forEach(changed::add);
+        try (TmdbStubServer stub = TmdbStubServer.builder().movieChanges(changed).start()) {
+            CatalogRefreshService.RefreshOutcome outcome = refreshService(stub, 1).refresh().movies();
+
+            assertThat(outcome.due()).isEqualTo(2);
+            assertThat(outcome.backlogged()).isTrue();
+            // The never refreshed movie wins over the one with the lower TMDb ID.
+            assertThat(movieRepository.findByTmdbId(21_500L)).get().extracting(Movie::getVoteAverage).isEqualTo(7.5);
+            assertThat(movieRepository.findByTmdbId(10_301L)).get().extracting(Movie::getVoteAverage).isEqualTo(1.0);
+        }
+    }
+
+    @Test
+    void retriesFailedTitlesFromTheSameStartDate() throws Exception {
+        Instant longAgo = Instant.now().minus(Duration.ofDays(2));
+        List<Long> changed = LongStream.rangeClosed(10_201, 10_203).boxed().toList();
+        changed.forEach(tmdbId -> storeMovie(tmdbId, longAgo));
+        try (TmdbStubServer stub = TmdbStubServer.builder().movieChanges(changed).start()) {
+            CatalogRefreshService refreshService = refreshService(stub, 2000);
+
+            stub.failDetails(true);
+            CatalogRefreshService.RefreshOutcome first = refreshService.refresh().movies();
+            stub.failDetails(false);
+            CatalogRefreshService.RefreshOutcome second = refreshService.refresh().movies();
+
+            assertThat(first.failed()).isEqualTo(3);
+            assertThat(first.refreshed()).isZero();
+            assertThat(second.refreshed()).isEqualTo(3);
+            assertThat(second.failed()).isZero();
+            // Movies and TV shows of both runs read the feed from the first run's start date.
+            assertThat(stub.changesStartDates()).hasSize(4).containsOnly(stub.changesStartDates().getFirst());
+            assertThat(movieRepository.findByTmdbId(10_201L)).get().extracting(Movie::getVoteAverage).isEqualTo(7.5);
+        }
+    }
+
+    private CatalogRefreshService refreshService(TmdbStubServer stub, int maxTitlesPerRun) {
+        TmdbClient client = stub.newClient(Duration.ofSeconds(5), true);
+        RefreshAheadCache refreshAheadCache = new RefreshAheadCache();
+        return new CatalogRefreshService(client,
+                new MovieService(movieRepository, client, refreshAheadCache),
+                new TvShowService(tvShowRepository, client, refreshAheadCache),
+                movieRepository, tvShowRepository, catalogRefreshRepository,
+                true, Duration.ofDays(1), Duration.ofHours(6), maxTitlesPerRun, 2, 2);
+    }
+
+    private void storeMovie(long tmdbId, Instant lastRefreshedAt) {
+        Movie movie = new Movie();
+        movie.setTmdbId(tmdbId);
+        movie.setTitle("Old title " + tmdbId);
+        movie.setPosterPath("/old.jpg");
+        movie.setVoteAverage(1.0);
+        movie.setLastRefreshedAt(lastRefreshedAt);
+        movieRepository.save(movie);
+    }
+
+    private void storeTvShow(long tmdbId, Instant lastRefreshedAt) {
+        TvShow tvShow = new TvShow();
+        tvShow.setTmdbId(tmdbId);
+        tvShow.setTitle("Old title " + tmdbId);
+        tvShow.setVoteAverage(1.0);
+        tvShow.setLastRefreshedAt(lastRefreshedAt);
+        tvShowRepository.save(tvShow);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.davidduclam.movietracker.service;
+
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbVideoDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbVideoResultsDTO;
+import com.github.davidduclam.movietracker.dto.DetailsLookupDTO;
+import com.github.davidduclam.movietracker.dto.MovieResponseDTO;
+import com.github.davidduclam.movietracker.dto.TrailerDTO;
+import com.github.davidduclam.movietracker.error.MediaNotFoundException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import com.github.davidduclam.movietracker.model.DetailsSource;
+import com.github.davidduclam.movietracker.model.Movie;
+import com.github.davidduclam.movietracker.repository.MovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class MovieServiceTests {
+
+    private static final TmdbClientException UNAVAILABLE =
+            new TmdbClientException("circuit open", HttpStatus.SERVICE_UNAVAILABLE, null);
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @Test
+    void servesFreshDetailsWhenTmdbIsUp() {
+        when(tmdbClient.fetchMovieDetails(7_000L))
+                .thenReturn(new TmdbMovieDTO(7_000L, "Fresh", null, null, null, null, 8.0, null));
+
+        DetailsLookupDTO<MovieResponseDTO> lookup = movieService.lookupMovieDetails(7_000L);
+
+        assertThat(lookup.source()).isEqualTo(DetailsSource.TMDB);
+        assertThat(lookup.details().title()).isEqualTo("Fresh");
+    }
+
+    @Test
+    void fallsBackToLastKnownDetailsThenToStoredRow() {
+        when(tmdbClient.fetchMovieDetails(7_001L)).thenThrow(UNAVAILABLE);
+        when(tmdbClient.lastKnownMovieDetails(7_001L))
+                .thenReturn(Optional.of(new TmdbMovieDTO(7_001L, "Cached", null, null, null, null, 8.0, null)));
+        when(tmdbClient.fetchMovieDetails(7_002L)).thenThrow(UNAVAILABLE);
+        when(tmdbClient.lastKnownMovieDetails(7_002L)).thenReturn(Optional.empty());
+        Movie movie = new Movie();
+        movie.setTmdbId(7_002L);
+        movie.setTitle("Stored");
+        movieRepository.save(movie);
+
+        DetailsLookupDTO<MovieResponseDTO> cached = movieService.lookupMovieDetails(7_001L);
+        DetailsLookupDTO<MovieResponseDTO> stored = movieService.lookupMovieDetails(7_002L);
+
+        assertThat(cached.source()).isEqualTo(DetailsSource.CACHE);
+        assertThat(cached.details().title()).isEqualTo("Cached");
+        assertThat(stored.source()).isEqualTo(DetailsSource.DATABASE);
+        assertThat(stored.details().title()).isEqualTo("Stored");
+    }
+
+    @Test
+    void trailerComesFromTheAppendedVideos() {
+        when(tmdbClient.fetchMovieDetails(7_004L)).thenReturn(new TmdbMovieDTO(7_004L, "With trailer",
+                null, null, null, null, 8.0, new TmdbVideoResultsDTO(List.of(
+                        new TmdbVideoDTO("Teaser", true, "teaser", "YouTube", "Teaser"),
+                        new TmdbVideoDTO("Official Trailer", true, "trailer", "YouTube", "Trailer")))));
+
+        TrailerDTO trailer = movieService.getMovieTrailer(7_004L);
+
+        assertThat(trailer.key()).isEqualTo("trailer");
+        verify(tmdbClient).fetchMovieDetails(7_004L);
+        verifyNoMoreInteractions(tmdbClient);
+    }
+
+    @Test
+    void skipsVideosWithoutAnOfficialFlag() {
+        when(tmdbClient.fetchMovieDetails(7_005L)).thenReturn(new TmdbMovieDTO(7_005L, "Unflagged videos",
+                null, null, null, null, 8.0, new TmdbVideoResultsDTO(List.of(
+                        new TmdbVideoDTO("Fan cut", null, "fan", "YouTube", "Trailer"),
+                        new TmdbVideoDTO("Untyped", true, "untyped", "YouTube", null),
+                        new TmdbVideoDTO("Official Trailer", true, "trailer", "YouTube", "Trailer")))));
+        when(tmdbClient.fetchMovieDetails(7_006L)).thenReturn(new TmdbMovieDTO(7_006L, "No video list",
+                null, null, null, null, 8.0, new TmdbVideoResultsDTO(null)));
+
+        DetailsLookupDTO<MovieResponseDTO> lookup = movieService.lookupMovieDetails(7_005L);
+
+        assertThat(lookup.details().trailerKey()).isEqualTo("trailer");
+        assertThat(movieService.lookupMovieDetails(7_006L).details().trailerKey()).isNull();
+        assertThatThrownBy(() -> movieService.getMovieTrailer(7_006L)).isInstanceOf(MediaNotFoundException.class);
+    }
+
+    @Test
+    void rethrowsWhenNoStaleCopyExists() {
+        when(tmdbClient.fetchMovieDetails(7_003L)).thenThrow(UNAVAILABLE);
+        when(tmdbClient.lastKnownMovieDetails(7_003L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> movieService.lookupMovieDetails(7_003L)).isSameAs(UNAVAILABLE);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.davidduclam.movietracker.service;
+
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieResultDTO;
+import com.github.davidduclam.movietracker.dto.MovieSearchResultDTO;
+import com.github.davidduclam.movietracker.dto.SearchResultDTO;
+import com.github.davidduclam.movietracker.model.Movie;
+import com.github.davidduclam.movietracker.model.SearchMode;
+import com.github.davidduclam.movietracker.repository.MovieRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class SearchServiceTests {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @Test
+    void localFirstAnswersFromStoredCatalog() {
+        for (int i = 0; i < 6; i++) {
+            saveMovie(5_000L + i, "Localfirst Saga Part " + i, 5.0 + i);
+        }
+
+        List<SearchResultDTO> results = searchService.searchMulti("  LOCALFIRST saga ", "en-US", SearchMode.LOCAL_FIRST);
+
+        assertThat(results).hasSize(6);
+        assertThat(results.getFirst()).isInstanceOfSatisfying(MovieSearchResultDTO.class,
+                movie -> assertThat(movie.title()).isEqualTo("Localfirst Saga Part 5"));
+        verify(tmdbClient, never()).searchMulti(anyString(), anyString());
+    }
+
+    @Test
+    void localFirstFallsBackToTmdbWhenTooFewLocalResults() {
+        saveMovie(5_100L, "Rare_Title 100% Unique", 7.0);
+        when(tmdbClient.searchMulti("rare_title", "en-US")).thenReturn(List.of(
+                new TmdbMovieResultDTO(5_100L, "movie", null, 7.0, "Rare_Title 100% Unique", "2020-01-01")));
+
+        List<SearchResultDTO> results = searchService.searchMulti("Rare_Title", "en-US", SearchMode.LOCAL_FIRST);
+
+        assertThat(results).singleElement().isInstanceOf(MovieSearchResultDTO.class);
+        verify(tmdbClient).searchMulti("rare_title", "en-US");
+    }
+
+    private void saveMovie(Long tmdbId, String title, Double voteAverage) {
+        Movie movie = new Movie();
+        movie.setTmdbId(tmdbId);
+        movie.setTitle(title);
+        movie.setVoteAverage(voteAverage);
+        movieRepository.save(movie);
+    }
+}
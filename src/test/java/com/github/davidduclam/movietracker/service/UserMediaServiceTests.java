@@ -0,0 +1,255 @@
+package com.github.davidduclam.movietracker.service;
+
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbTvShowDTO;
+import com.github.davidduclam.movietracker.dto.MovieWatchlistItemDTO;
+import com.github.davidduclam.movietracker.dto.TvShowWatchlistItemDTO;
+import com.github.davidduclam.movietracker.dto.UserMediaBatchResultDTO;
+import com.github.davidduclam.movietracker.dto.UserMediaRequestDTO;
+import com.github.davidduclam.movietracker.dto.WatchlistItemDTO;
+import com.github.davidduclam.movietracker.dto.WatchlistPageDTO;
+import com.github.davidduclam.movietracker.error.MediaAlreadyExistsException;
+import com.github.davidduclam.movietracker.error.TmdbClientException;
+import com.github.davidduclam.movietracker.model.*;
+import com.github.davidduclam.movietracker.repository.MovieRepository;
+import com.github.davidduclam.movietracker.repository.TvShowRepository;
+import com.github.davidduclam.movietracker.repository.UserMediaRepository;
+import com.github.davidduclam.movietracker.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class UserMediaServiceTests {
+
+    @Autowired
+    private UserMediaService userMediaService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TvShowRepository tvShowRepository;
+
+    @Autowired
+    private UserMediaRepository userMediaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @Test
+    void getMediaFromUserLoadsWatchlistWithConstantStatementCount() {
+        User user = saveUser("watchlist-statements");
+        for (long tmdbId = 1_000; tmdbId < 1_040; tmdbId++) {
+            saveMovie(tmdbId);
+            saveTvShow(tmdbId);
+            saveUserMedia(user, tmdbId, MediaType.MOVIE);
+            saveUserMedia(user, tmdbId, MediaType.TV);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<WatchlistItemDTO> watchlist = userMediaService.getMediaFromUser(user.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        assertThat(watchlist).hasSize(80);
+        assertThat(watchlist).isSortedAccordingTo(
+                Comparator.comparing(WatchlistItemDTO::userMediaId).reversed());
+        assertThat(watchlist).allSatisfy(item -> {
+            switch (item) {
+                case MovieWatchlistItemDTO movie -> assertThat(movie.title()).isEqualTo("Movie " + movie.id());
+                case TvShowWatchlistItemDTO tvShow -> assertThat(tvShow.name()).isEqualTo("Show " + tvShow.id());
+            }
+        });
+    }
+
+    @Test
+    void getMediaPageFromUserWalksWatchlistWithCursor() {
+        User user = saveUser("watchlist-pages");
+        for (long tmdbId = 2_000; tmdbId < 2_025; tmdbId++) {
+            saveMovie(tmdbId);
+            saveUserMedia(user, tmdbId, MediaType.MOVIE);
+        }
+
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            WatchlistPageDTO page = userMediaService.getMediaPageFromUser(user.getId(), cursor, 10);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(10);
+            page.items().forEach(item -> pagedIds.add(item.userMediaId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(pagedIds).containsExactlyElementsOf(
+                userMediaService.getMediaFromUser(user.getId()).stream().map(WatchlistItemDTO::userMediaId).toList());
+    }
+
+    @Test
+    void addMediaToUserDoesNotCreateDuplicatesUnderConcurrentRequests() throws Exception {
+        User user = saveUser("concurrent-adds");
+        long tmdbId = 3_000;
+        when(tmdbClient.fetchMovieDetails(tmdbId)).thenReturn(
+                new TmdbMovieDTO(tmdbId, "Movie " + tmdbId, null, null, null, null, null, null));
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserMedia>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userMediaService.addMediaToUser(user.getId(), new UserMediaRequestDTO(tmdbId, MediaType.MOVIE));
+                }));
+            }
+            start.countDown();
+
+            int added = 0;
+            int alreadyExists = 0;
+            for (Future<UserMedia> result : results) {
+                try {
+                    result.get();
+                    added++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(MediaAlreadyExistsException.class);
+                    alreadyExists++;
+                }
+            }
+            assertThat(added).isEqualTo(1);
+            assertThat(alreadyExists).isEqualTo(threads - 1);
+        }
+
+        assertThat(movieRepository.findAll()).filteredOn(movie -> movie.getTmdbId() == tmdbId).hasSize(1);
+        assertThat(userMediaRepository.findByUserIdAndTmdbIdAndMediaType(user.getId(), tmdbId, MediaType.MOVIE)).isPresent();
+    }
+
+    @Test
+    void addMediaToUserFetchesFromTmdbOutsideTransaction() {
+        User user = saveUser("tmdb-outside-transaction");
+        long tmdbId = 4_000;
+        when(tmdbClient.fetchTvShowDetails(tmdbId)).thenAnswer(invocation -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            return new TmdbTvShowDTO(tmdbId, "Show " + tmdbId, null, null, null, null, null, null);
+        });
+
+        userMediaService.addMediaToUser(user.getId(), new UserMediaRequestDTO(tmdbId, MediaType.TV));
+
+        verify(tmdbClient).fetchTvShowDetails(tmdbId);
+        assertThat(userMediaService.getMediaFromUser(user.getId()))
+                .singleElement()
+                .isInstanceOfSatisfying(TvShowWatchlistItemDTO.class,
+                        tvShow -> assertThat(tvShow.name()).isEqualTo("Show " + tmdbId));
+    }
+
+    @Test
+    void addMediaToUserBatchReportsEachItemAndDeleteBatchRemovesThem() {
+        User user = saveUser("batch-watchlist");
+        saveMovie(8_000L);
+        saveUserMedia(user, 8_000L, MediaType.MOVIE);
+        saveMovie(8_001L);
+        when(tmdbClient.fetchMovieDetails(8_002L)).thenReturn(
+                new TmdbMovieDTO(8_002L, "Movie 8002", null, null, null, null, null, null));
+        when(tmdbClient.fetchTvShowDetails(8_003L)).thenReturn(
+                new TmdbTvShowDTO(8_003L, "Show 8003", null, null, null, null, null, null));
+        when(tmdbClient.fetchTvShowDetails(8_004L)).thenThrow(
+                new TmdbClientException("TMDB request failed", HttpStatus.NOT_FOUND, null));
+
+        List<UserMediaRequestDTO> items = List.of(
+                new UserMediaRequestDTO(8_000L, MediaType.MOVIE),
+                new UserMediaRequestDTO(8_001L, MediaType.MOVIE),
+                new UserMediaRequestDTO(8_002L, MediaType.MOVIE),
+                new UserMediaRequestDTO(8_003L, MediaType.TV),
+                new UserMediaRequestDTO(8_004L, MediaType.TV),
+                new UserMediaRequestDTO(8_001L, MediaType.MOVIE));
+        List<UserMediaBatchResultDTO> added = userMediaService.addMediaToUserBatch(user.getId(), items);
+
+        assertThat(added).extracting(UserMediaBatchResultDTO::status).containsExactly(
+                BatchItemStatus.ALREADY_EXISTS, BatchItemStatus.ADDED, BatchItemStatus.ADDED,
+                BatchItemStatus.ADDED, BatchItemStatus.NOT_FOUND, BatchItemStatus.ADDED);
+        verify(tmdbClient, never()).fetchMovieDetails(8_001L);
+        assertThat(userMediaService.getMediaFromUser(user.getId())).hasSize(4);
+
+        List<UserMediaBatchResultDTO> removed = userMediaService.deleteMediaFromUserBatch(user.getId(), items);
+
+        assertThat(removed).extracting(UserMediaBatchResultDTO::status).containsExactly(
+                BatchItemStatus.REMOVED, BatchItemStatus.REMOVED, BatchItemStatus.REMOVED,
+                BatchItemStatus.REMOVED, BatchItemStatus.NOT_FOUND, BatchItemStatus.REMOVED);
+        assertThat(userMediaService.getMediaFromUser(user.getId())).isEmpty();
+    }
+
+    @Test
+    void exportMediaFromUserStreamsEveryItemAcrossChunks() throws Exception {
+        User user = saveUser("watchlist-export");
+        for (long tmdbId = 6_000; tmdbId < 6_025; tmdbId++) {
+            saveMovie(tmdbId);
+            saveUserMedia(user, tmdbId, MediaType.MOVIE);
+        }
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        userMediaService.exportMediaFromUser(user.getId(), ExportFormat.NDJSON, ndjson);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        userMediaService.exportMediaFromUser(user.getId(), ExportFormat.CSV, csv);
+
+        List<String> jsonLines = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(jsonLines).hasSize(25);
+        assertThat(jsonLines.getFirst()).contains("\"title\":\"Movie 6024\"", "\"mediaType\":\"movie\"");
+        List<String> csvLines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(csvLines).hasSize(26);
+        assertThat(csvLines.get(1)).contains(",6024,MOVIE,\"Movie 6024\",");
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return userRepository.save(user);
+    }
+
+    private void saveMovie(Long tmdbId) {
+        Movie movie = new Movie();
+        movie.setTmdbId(tmdbId);
+        movie.setTitle("Movie " + tmdbId);
+        movieRepository.save(movie);
+    }
+
+    private void saveTvShow(Long tmdbId) {
+        TvShow tvShow = new TvShow();
+        tvShow.setTmdbId(tmdbId);
+        tvShow.setTitle("Show " + tmdbId);
+        tvShowRepository.save(tvShow);
+    }
+
+    private void saveUserMedia(User user, Long tmdbId, MediaType mediaType) {
+        UserMedia userMedia = new UserMedia();
+        userMedia.setUser(user);
+        userMedia.setTmdbId(tmdbId);
+        userMedia.setMediaType(mediaType);
+        userMediaRepository.save(userMedia);
+    }
+}
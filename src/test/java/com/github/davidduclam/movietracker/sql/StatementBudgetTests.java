@@ -0,0 +1,125 @@
+package com.github.davidduclam.movietracker.sql;
+
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.error.StatementBudgetExceededException;
+import com.github.davidduclam.movietracker.model.User;
+import com.github.davidduclam.movietracker.repository.UserRepository;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @Test
+    void watchlistEndpointsStayWithinTheirBudgets() throws Exception {
+        when(tmdbClient.fetchMovieDetails(anyLong())).thenAnswer(invocation -> {
+            long tmdbId = invocation.getArgument(0);
+            return new TmdbMovieDTO(tmdbId, "Movie " + tmdbId, null, null, null, null, null, null);
+        });
+        User user = new User();
+        user.setUsername("statement-budget");
+        Long userId = userRepository.save(user).getId();
+
+        // The test profile fails any request over its budget, so these requests are the assertion.
+        for (long tmdbId = 9_100; tmdbId < 9_112; tmdbId++) {
+            mockMvc.perform(post("/users/{user_id}/media", userId)
+                            .contentType("application/json")
+                            .content("{\"tmdbId\":" + tmdbId + ",\"mediaType\":\"MOVIE\"}"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/users/{user_id}/media", userId)).andExpect(status().isOk());
+        mockMvc.perform(get("/users/{user_id}/media/page", userId).param("limit", "5")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/sqlstatements"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byExecutions[*].sql", hasItem(startsWith("insert into user_media"))))
+                .andExpect(jsonPath("$.byTotalTime").isNotEmpty());
+        // The statistics cannot be reset over HTTP.
+        mockMvc.perform(delete("/actuator/sqlstatements")).andExpect(status().isMethodNotAllowed());
+    }
+
+    @Test
+    void failsRequestsOverTheEndpointBudget() throws Exception {
+        StatementBudgetFilter filter = new StatementBudgetFilter(true, 20, 5, true);
+
+        assertThatThrownBy(() -> filter.doFilter(request("budgetOfTwo"), new MockHttpServletResponse(),
+                executing("select 1", "select 2", "select 3")))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("3 statements, budget 2");
+        assertThatCode(() -> filter.doFilter(request("budgetOfTwo"), new MockHttpServletResponse(),
+                executing("select 1", "select 2")))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void failsRequestsRepeatingOneStatement() {
+        StatementBudgetFilter filter = new StatementBudgetFilter(true, 20, 5, true);
+
+        assertThatThrownBy(() -> filter.doFilter(request("noBudget"), new MockHttpServletResponse(),
+                executing("select * from movies where id = ?", "select * from movies where id = ?",
+                        "select * from movies where id = ?", "select * from movies where id = ?",
+                        "select * from movies where id = ?", "select * from movies where id = ?")))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("possible N+1, 6 executions of: select * from movies where id = ?");
+    }
+
+    @StatementBudget(2)
+    void budgetOfTwo() {
+    }
+
+    void noBudget() {
+    }
+
+    private MockHttpServletRequest request(String handlerMethodName) throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(this, getClass().getDeclaredMethod(handlerMethodName)));
+        return request;
+    }
+
+    private static MockFilterChain executing(String... statements) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest request, jakarta.servlet.http.HttpServletResponse response) {
+                for (String sql : statements) {
+                    RequestStatements.record(sql, false);
+                }
+            }
+        });
+    }
+}
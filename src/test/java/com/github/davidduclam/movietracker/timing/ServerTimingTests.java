@@ -0,0 +1,60 @@
+package com.github.davidduclam.movietracker.timing;
+
+import com.github.davidduclam.movietracker.client.tmdb.TmdbClient;
+import com.github.davidduclam.movietracker.client.tmdb.dto.TmdbMovieDTO;
+import com.github.davidduclam.movietracker.model.User;
+import com.github.davidduclam.movietracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class ServerTimingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @Test
+    void watchlistResponseReportsDatabaseAndMappingTime() throws Exception {
+        User user = new User();
+        user.setUsername("server-timing");
+        Long userId = userRepository.save(user).getId();
+
+        mockMvc.perform(get("/users/{user_id}/media", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTimingResponseAdvice.SERVER_TIMING, allOf(
+                        containsString("db;dur="), containsString("map;dur="), containsString("app;dur="),
+                        not(containsString("tmdb;")))));
+    }
+
+    @Test
+    void encodedDetailsResponseReportsSerializationTime() throws Exception {
+        when(tmdbClient.fetchMovieDetails(9_000L)).thenReturn(
+                new TmdbMovieDTO(9_000L, "Movie 9000", null, null, null, null, null, null));
+
+        mockMvc.perform(get("/movies/{tmdbId}", 9_000L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerTimingResponseAdvice.SERVER_TIMING, allOf(
+                        containsString("map;dur="), containsString("serialize;dur="), containsString("desc=\"1 call\""))));
+    }
+}